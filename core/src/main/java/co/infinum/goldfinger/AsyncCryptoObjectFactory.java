@@ -1,50 +1,458 @@
 package co.infinum.goldfinger;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.biometric.BiometricPrompt;
+import co.infinum.goldfinger.GoldfingerLogger.Event;
+
+import static co.infinum.goldfinger.LogUtils.log;
 
 /**
  * Creates CryptoObject asynchronously.
+ * <p>
+ * Canceled creation is removed from the queue or, if it is already running, its thread is
+ * interrupted. Keystore factories check the interruption between keystore calls.
+ * <p>
+ * If timeout is set, creation which does not finish in time is canceled and
+ * {@link Callback#onCryptoObjectTimeout} is invoked instead.
+ * <p>
+ * Keys that fail repeatedly fail instantly for a while and are probed in the background
+ * if the factory implements {@link co.infinum.goldfinger.crypto.KeystoreProbe},
+ * see {@link KeystoreCircuitBreaker}.
  */
 class AsyncCryptoObjectFactory {
 
+    /* Prepared CryptoObject is discarded if it is not used within this period. */
+    private static final long PREPARED_EXPIRY_MS = 60_000;
+
     private final CryptoObjectFactory cryptoObjectFactory;
-    private final ExecutorService executor;
-    private Future task;
+    private final KeystoreCircuitBreaker circuitBreaker;
+    @Nullable private final GoldfingerEventListener eventListener;
+    @NonNull private final StatsRecorder stats;
+    private final Executor executor;
+    private final long timeoutMillis;
+    @Nullable private volatile Handler mainHandler;
+    @Nullable private PreparedCallback prepared;
+
+    /**
+     * @param executor background executor, CryptoObjects are still created one at a time.
+     */
+    AsyncCryptoObjectFactory(@NonNull CryptoObjectFactory cryptoObjectFactory, @NonNull Executor executor) {
+        this(cryptoObjectFactory, new KeystoreCircuitBreaker(), executor, 0, null, new StatsRecorder());
+    }
 
-    AsyncCryptoObjectFactory(@NonNull CryptoObjectFactory cryptoObjectFactory) {
+    /**
+     * @param timeoutMillis how long {@link #createCryptoObject} may take, including the time spent
+     *                      in the queue, 0 if there is no deadline.
+     * @param eventListener if set, creation of every CryptoObject is reported to it.
+     * @param stats         records creation latency.
+     */
+    AsyncCryptoObjectFactory(
+        @NonNull CryptoObjectFactory cryptoObjectFactory,
+        @NonNull KeystoreCircuitBreaker circuitBreaker,
+        @NonNull Executor executor,
+        long timeoutMillis,
+        @Nullable GoldfingerEventListener eventListener,
+        @NonNull StatsRecorder stats
+    ) {
         this.cryptoObjectFactory = cryptoObjectFactory;
-        this.executor = Executors.newSingleThreadExecutor();
+        this.circuitBreaker = circuitBreaker;
+        this.eventListener = eventListener;
+        this.stats = stats;
+        this.executor = ExecutorUtils.serial(executor);
+        this.timeoutMillis = timeoutMillis;
+        if (cryptoObjectFactory.canProbeKeystore()) {
+            /* Otherwise the next request after the cool-down acts as the probe */
+            circuitBreaker.setProber(new KeystoreCircuitBreaker.Prober() {
+                @Override
+                public void scheduleProbe(@NonNull String key, long delayMillis) {
+                    AsyncCryptoObjectFactory.this.scheduleProbe(key, delayMillis);
+                }
+            });
+        }
     }
 
+    /**
+     * Create CryptoObject or reuse the one that is prepared, or still being prepared, for the same Key and mode.
+     * Cancel the callback to stop the creation. If the Key keeps failing, callback receives null immediately.
+     */
     void createCryptoObject(
         @NonNull Mode mode,
         @NonNull String key,
+        @Nullable String value,
         @NonNull AsyncCryptoObjectFactory.Callback callback
     ) {
-        if (task != null && !task.isDone()) {
-            task.cancel(true);
+        PreparedCallback prepared = takePrepared(mode, key, value);
+        if (prepared == null && !circuitBreaker.allow(key)) {
+            log(Event.CIRCUIT_OPEN_CREATION_SKIPPED, key);
+            callback.deliver(null);
+            return;
+        }
+
+        if (timeoutMillis > 0) {
+            startDeadline(key, callback);
+        }
+
+        if (prepared != null) {
+            log(Event.CRYPTO_OBJECT_PREPARED_USED, key);
+            prepared.deliverTo(callback);
+            savePreparedIv(prepared);
+            return;
+        }
+
+        callback.attach(submit(new CryptoObjectInitRunnable(cryptoObjectFactory, circuitBreaker, eventListener, stats, mode, key, value, false, callback)));
+    }
+
+    /**
+     * Start creating CryptoObject in advance. Next {@link #createCryptoObject} call with
+     * matching parameters receives it without waiting for the creation.
+     * Only the last prepared CryptoObject is kept, repeated calls with the same parameters
+     * reuse the one that is already prepared. IV of prepared encryption Cipher is saved only
+     * once a request uses it.
+     *
+     * @param value encrypted value, used only for decryption.
+     */
+    void prepareCryptoObject(@NonNull Mode mode, @NonNull String key, @Nullable String value) {
+        PreparedCallback previous;
+        PreparedCallback prepared = new PreparedCallback(mode, key, value);
+        synchronized (this) {
+            previous = this.prepared;
+            if (previous != null && previous.matches(mode, key, value) && !previous.isExpired()) {
+                log(Event.CRYPTO_OBJECT_ALREADY_PREPARED, key);
+                return;
+            }
+            if (!circuitBreaker.allow(key)) {
+                log(Event.CIRCUIT_OPEN_PREPARATION_SKIPPED, key);
+                return;
+            }
+            this.prepared = prepared;
+        }
+
+        if (previous != null) {
+            previous.cancel();
         }
 
-        this.task = executor.submit(new CryptoObjectInitRunnable(cryptoObjectFactory, mode, key, callback));
+        log(Event.CRYPTO_OBJECT_PREPARING, key);
+        prepared.attach(submit(new CryptoObjectInitRunnable(cryptoObjectFactory, circuitBreaker, eventListener, stats, mode, key, value, true, prepared)));
     }
 
     /**
-     * Internal callback used to receive created {@link BiometricPrompt.CryptoObject}
+     * Save IV of prepared CryptoObject used by a request. Serial executor runs this after
+     * the preparation finishes and before any later creation, including decryption.
+     */
+    private void savePreparedIv(@NonNull final PreparedCallback prepared) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                BiometricPrompt.CryptoObject cryptoObject = prepared.cryptoObject();
+                if (cryptoObject != null) {
+                    cryptoObjectFactory.onPreparedUsed(prepared.key, prepared.mode, cryptoObject);
+                }
+            }
+        });
+    }
+
+    /**
+     * Deadline is checked on the main thread, creation itself blocks the background thread.
+     * Deadline is removed once the callback is delivered or canceled, otherwise it counts as Key failure.
+     */
+    private void startDeadline(@NonNull final String key, @NonNull final Callback callback) {
+        final long startedAt = SystemClock.elapsedRealtime();
+        Handler timeoutHandler = mainHandler();
+
+        Runnable deadline = new Runnable() {
+            @Override
+            public void run() {
+                if (callback.timeout(SystemClock.elapsedRealtime() - startedAt)) {
+                    circuitBreaker.onFailure(key);
+                }
+            }
+        };
+        timeoutHandler.postDelayed(deadline, timeoutMillis);
+        callback.attachDeadline(timeoutHandler, deadline);
+    }
+
+    /**
+     * Probe the Key with open circuit on the background executor once the cool-down passes.
+     * Probe calls the keystore directly, creating a CryptoObject may succeed from cached state
+     * without reaching the keystore at all.
+     */
+    private void scheduleProbe(@NonNull final String key, long delayMillis) {
+        mainHandler().postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                if (!circuitBreaker.allow(key)) {
+                    return;
+                }
+
+                log(Event.CIRCUIT_PROBING, key);
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        probe(key);
+                    }
+                });
+            }
+        }, delayMillis);
+    }
+
+    /**
+     * Close the circuit if the keystore responds, otherwise keep it open for another cool-down.
+     * Factory that cannot be probed leaves the circuit to the next request.
+     */
+    void probe(@NonNull String key) {
+        if (!cryptoObjectFactory.canProbeKeystore()) {
+            return;
+        }
+
+        try {
+            cryptoObjectFactory.probeKeystore(key);
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure(key);
+            return;
+        }
+        circuitBreaker.onSuccess(key);
+    }
+
+    @NonNull
+    private Handler mainHandler() {
+        Handler mainHandler = this.mainHandler;
+        if (mainHandler == null) {
+            mainHandler = new Handler(Looper.getMainLooper());
+            this.mainHandler = mainHandler;
+        }
+        return mainHandler;
+    }
+
+    @NonNull
+    private Future<Void> submit(@NonNull Runnable runnable) {
+        final FutureTask<Void> task = new FutureTask<>(runnable, null);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    task.run();
+                } finally {
+                    /* Clear interruption of canceled task so it does not leak into the next task on this thread */
+                    Thread.interrupted();
+                }
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Return prepared CryptoObject callback if it can be used for given parameters.
+     * Prepared CryptoObject is single use so it is discarded in any case.
+     */
+    @Nullable
+    private PreparedCallback takePrepared(@NonNull Mode mode, @NonNull String key, @Nullable String value) {
+        PreparedCallback prepared;
+        synchronized (this) {
+            prepared = this.prepared;
+            this.prepared = null;
+        }
+        if (prepared == null) {
+            return null;
+        }
+
+        if (prepared.matches(mode, key, value) && !prepared.isExpired()) {
+            return prepared;
+        }
+
+        prepared.cancel();
+        return null;
+    }
+
+    /**
+     * Internal callback used to receive created {@link BiometricPrompt.CryptoObject}.
+     * Invoked on the background thread.
      */
     static abstract class Callback {
 
+        /* Set once the callback is delivered, canceled or timed out, whichever comes first. */
+        @NonNull private final AtomicBoolean done = new AtomicBoolean(false);
+        @Nullable private volatile Future task;
+        @Nullable private volatile Handler deadlineHandler;
+        @Nullable private volatile Runnable deadline;
+
         abstract void onCryptoObjectCreated(@Nullable BiometricPrompt.CryptoObject cryptoObject);
 
-        boolean canceled = false;
+        /**
+         * Invoked instead of {@link #onCryptoObjectCreated} if the creation does not finish in time.
+         * Creation is already canceled at this point.
+         *
+         * @param elapsedMillis time since the creation is requested.
+         */
+        void onCryptoObjectTimeout(long elapsedMillis) {
+            onCryptoObjectCreated(null);
+        }
 
+        boolean isDone() {
+            return done.get();
+        }
+
+        /**
+         * Skip the delivery and stop the creation, whether it is still queued or already running.
+         */
         void cancel() {
-            canceled = true;
+            if (done.compareAndSet(false, true)) {
+                removeDeadline();
+                cancelTask();
+            }
+        }
+
+        /**
+         * Deliver created CryptoObject unless the callback is already canceled or timed out.
+         */
+        void deliver(@Nullable BiometricPrompt.CryptoObject cryptoObject) {
+            if (done.compareAndSet(false, true)) {
+                removeDeadline();
+                onCryptoObjectCreated(cryptoObject);
+            }
+        }
+
+        /**
+         * Stop the creation and report the timeout unless the callback is already delivered or canceled.
+         *
+         * @return true if the timeout is reported.
+         */
+        boolean timeout(long elapsedMillis) {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+
+            cancelTask();
+            onCryptoObjectTimeout(elapsedMillis);
+            return true;
+        }
+
+        /**
+         * Attach the creation task so that {@link #cancel()} can stop it.
+         */
+        void attach(@NonNull Future task) {
+            this.task = task;
+            if (done.get()) {
+                cancelTask();
+            }
+        }
+
+        /**
+         * Attach posted deadline so that it is removed, together with references to this callback,
+         * as soon as the callback is delivered or canceled.
+         */
+        void attachDeadline(@NonNull Handler handler, @NonNull Runnable deadline) {
+            this.deadlineHandler = handler;
+            this.deadline = deadline;
+            if (done.get()) {
+                removeDeadline();
+            }
+        }
+
+        @Nullable
+        Future task() {
+            return task;
+        }
+
+        private void removeDeadline() {
+            Handler handler = this.deadlineHandler;
+            Runnable deadline = this.deadline;
+            if (handler != null && deadline != null) {
+                handler.removeCallbacks(deadline);
+            }
+            this.deadlineHandler = null;
+            this.deadline = null;
+        }
+
+        private void cancelTask() {
+            Future task = this.task;
+            if (task != null && !task.isDone()) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Holds CryptoObject created in advance until it is requested.
+     */
+    private static class PreparedCallback extends Callback {
+
+        @NonNull private final Mode mode;
+        @NonNull private final String key;
+        @Nullable private final String value;
+        @Nullable private BiometricPrompt.CryptoObject cryptoObject;
+        @Nullable private Callback target;
+        private boolean created = false;
+        private long createdAt;
+
+        PreparedCallback(@NonNull Mode mode, @NonNull String key, @Nullable String value) {
+            this.mode = mode;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        void onCryptoObjectCreated(@Nullable BiometricPrompt.CryptoObject cryptoObject) {
+            Callback target;
+            synchronized (this) {
+                this.cryptoObject = cryptoObject;
+                this.createdAt = SystemClock.elapsedRealtime();
+                this.created = true;
+                target = this.target;
+            }
+            if (target != null) {
+                deliver(target);
+            }
+        }
+
+        /**
+         * Deliver CryptoObject to given callback immediately if it is already created,
+         * otherwise as soon as the creation finishes. Canceling the target stops the creation.
+         */
+        void deliverTo(@NonNull Callback target) {
+            boolean created;
+            synchronized (this) {
+                this.target = target;
+                created = this.created;
+            }
+            if (created) {
+                deliver(target);
+                return;
+            }
+
+            Future task = task();
+            if (task != null) {
+                target.attach(task);
+            }
+        }
+
+        /**
+         * Failed creation is treated as expired so that the next request tries again.
+         */
+        synchronized boolean isExpired() {
+            return created && (cryptoObject == null || SystemClock.elapsedRealtime() - createdAt > PREPARED_EXPIRY_MS);
+        }
+
+        boolean matches(@NonNull Mode mode, @NonNull String key, @Nullable String value) {
+            return this.mode == mode && this.key.equals(key) && (mode != Mode.DECRYPTION || value != null && value.equals(this.value));
+        }
+
+        @Nullable
+        synchronized BiometricPrompt.CryptoObject cryptoObject() {
+            return cryptoObject;
+        }
+
+        private void deliver(@NonNull Callback target) {
+            target.deliver(cryptoObject);
         }
     }
 }
@@ -0,0 +1,36 @@
+package co.infinum.goldfinger;
+
+import android.os.SystemClock;
+
+/**
+ * Tracks time-boxed authentication session. Session starts after successful
+ * authentication and lasts as long as Keys created with the same validity duration stay unlocked.
+ */
+class AuthSession {
+
+    private final long durationMs;
+    private volatile long expiresAt;
+
+    AuthSession(int durationSeconds) {
+        this.durationMs = durationSeconds * 1000L;
+    }
+
+    void start() {
+        this.expiresAt = SystemClock.elapsedRealtime() + durationMs;
+    }
+
+    void end() {
+        this.expiresAt = 0;
+    }
+
+    boolean isActive() {
+        return remainingMillis() > 0;
+    }
+
+    /**
+     * Return remaining session lifetime in milliseconds, 0 if session is not active.
+     */
+    long remainingMillis() {
+        return Math.max(0, expiresAt - SystemClock.elapsedRealtime());
+    }
+}
@@ -1,11 +1,14 @@
 package co.infinum.goldfinger;
 
-import android.os.Handler;
-import android.os.Looper;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.crypto.Cipher;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.biometric.BiometricPrompt;
+import co.infinum.goldfinger.GoldfingerLogger.Event;
 
 import static co.infinum.goldfinger.LogUtils.log;
 
@@ -13,41 +16,78 @@ import static co.infinum.goldfinger.LogUtils.log;
  * Extended default callback.
  * Tracks if the authentication is still active and handles multiple
  * edge cases that are not expected by the user.
+ * <p>
+ * Native callbacks are ignored once the {@link OperationState} is done, e.g. when
+ * the user knowingly canceled the authentication.
  */
 @SuppressWarnings({"ConstantConditions", "NullableProblems"})
 class BiometricCallback extends BiometricPrompt.AuthenticationCallback {
 
-    @NonNull private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
-
-    boolean isAuthenticationActive = true;
-
+    @NonNull private final AtomicBoolean authenticationActive = new AtomicBoolean(true);
+    @NonNull private final OperationState operation;
     @NonNull private final Goldfinger.Callback callback;
     @NonNull private final CrypterProxy cryptoProxy;
     @NonNull private final Mode mode;
     @Nullable private final String value;
+    @Nullable private final ByteValue byteValue;
+    @Nullable private final Goldfinger.StreamCallback streamCallback;
+    @NonNull private final Executor callbackExecutor;
+    @Nullable private final GoldfingerEventListener eventListener;
+    @NonNull private final StatsRecorder stats;
 
     BiometricCallback(
+        @NonNull OperationState operation,
         @NonNull CrypterProxy cryptoProxy,
         @NonNull Mode mode,
         @Nullable String value,
         @NonNull Goldfinger.Callback callback
     ) {
+        this(operation, cryptoProxy, mode, value, null, callback, null, ExecutorUtils.mainThreadExecutor(), null, new StatsRecorder());
+    }
+
+    /**
+     * @param operation        operation the callback belongs to.
+     * @param byteValue        if set, binary value is ciphered instead of String value.
+     * @param streamCallback   if set, unlocked Cipher is handed over to it instead of ciphering the value.
+     * @param callbackExecutor executor on which the results are delivered.
+     * @param eventListener    if set, native callback events are reported to it.
+     * @param stats            records time spent in the prompt.
+     */
+    BiometricCallback(
+        @NonNull OperationState operation,
+        @NonNull CrypterProxy cryptoProxy,
+        @NonNull Mode mode,
+        @Nullable String value,
+        @Nullable ByteValue byteValue,
+        @NonNull Goldfinger.Callback callback,
+        @Nullable Goldfinger.StreamCallback streamCallback,
+        @NonNull Executor callbackExecutor,
+        @Nullable GoldfingerEventListener eventListener,
+        @NonNull StatsRecorder stats
+    ) {
+        this.operation = operation;
         this.cryptoProxy = cryptoProxy;
         this.mode = mode;
         this.value = value;
+        this.byteValue = byteValue;
         this.callback = callback;
+        this.streamCallback = streamCallback;
+        this.callbackExecutor = callbackExecutor;
+        this.eventListener = eventListener;
+        this.stats = stats;
     }
 
     @Override
     public void onAuthenticationError(int errMsgId, final CharSequence errString) {
-        if (!isAuthenticationActive) {
+        if (!authenticationActive.compareAndSet(true, false) || operation.isDone()) {
             return;
         }
 
-        isAuthenticationActive = false;
         final Goldfinger.Reason reason = EnumConverter.errorToReason(errMsgId);
-        log("onAuthenticationError [%s]", reason);
-        MAIN_HANDLER.post(new Runnable() {
+        log(Event.AUTHENTICATION_ERROR, reason);
+        reportEvent(Goldfinger.Type.ERROR, reason);
+        recordTimeInDialog();
+        callbackExecutor.execute(new Runnable() {
             @Override
             public void run() {
                 Goldfinger.Result result = new Goldfinger.Result(
@@ -63,12 +103,13 @@ class BiometricCallback extends BiometricPrompt.AuthenticationCallback {
 
     @Override
     public void onAuthenticationFailed() {
-        if (!isAuthenticationActive) {
+        if (!authenticationActive.get() || operation.isDone()) {
             return;
         }
 
-        log("onAuthenticationFailed [%s]", Goldfinger.Reason.AUTHENTICATION_FAIL);
-        MAIN_HANDLER.post(new Runnable() {
+        log(Event.AUTHENTICATION_FAILED, Goldfinger.Reason.AUTHENTICATION_FAIL);
+        reportEvent(Goldfinger.Type.INFO, Goldfinger.Reason.AUTHENTICATION_FAIL);
+        callbackExecutor.execute(new Runnable() {
             @Override
             public void run() {
                 Goldfinger.Result result = new Goldfinger.Result(
@@ -82,14 +123,15 @@ class BiometricCallback extends BiometricPrompt.AuthenticationCallback {
 
     @Override
     public void onAuthenticationSucceeded(@NonNull final BiometricPrompt.AuthenticationResult result) {
-        if (!isAuthenticationActive) {
+        if (!authenticationActive.compareAndSet(true, false) || operation.isDone()) {
             return;
         }
 
-        isAuthenticationActive = false;
-        log("onAuthenticationSucceeded");
+        log(Event.AUTHENTICATION_SUCCEEDED);
+        reportEvent(Goldfinger.Type.SUCCESS, Goldfinger.Reason.AUTHENTICATION_SUCCESS);
+        recordTimeInDialog();
         if (mode == Mode.AUTHENTICATION) {
-            MAIN_HANDLER.post(new Runnable() {
+            callbackExecutor.execute(new Runnable() {
                 @Override
                 public void run() {
                     Goldfinger.Result goldfingerResult = new Goldfinger.Result(
@@ -99,19 +141,102 @@ class BiometricCallback extends BiometricPrompt.AuthenticationCallback {
                     callback.onResult(goldfingerResult);
                 }
             });
+        } else if (operation.transition(Goldfinger.State.PROMPTING, Goldfinger.State.CIPHERING)) {
+            onCryptoObjectUnlocked(result.getCryptoObject());
+        }
+    }
+
+    /**
+     * Cipher the value with {@link BiometricPrompt.CryptoObject} that is already unlocked,
+     * either by successful authentication or by active authentication session.
+     */
+    void onCryptoObjectUnlocked(@Nullable BiometricPrompt.CryptoObject cryptoObject) {
+        authenticationActive.set(false);
+        if (streamCallback != null) {
+            deliverCipherStream(cryptoObject);
+        } else if (byteValue != null) {
+            cipherBytes(cryptoObject);
+        } else {
+            cipherValue(cryptoObject);
+        }
+    }
+
+    private void reportEvent(@NonNull Goldfinger.Type type, @NonNull Goldfinger.Reason reason) {
+        if (eventListener != null) {
+            eventListener.onAuthenticationEvent(type, reason, System.nanoTime());
+        }
+    }
+
+    private void recordTimeInDialog() {
+        long promptShownAtNanos = operation.promptShownAtNanos();
+        if (promptShownAtNanos != 0) {
+            stats.recordTimeInDialog(System.nanoTime() - promptShownAtNanos);
+        }
+    }
+
+    /**
+     * Cipher the binary value with unlocked {@link BiometricPrompt.CryptoObject}.
+     * Buffer variant writes the result directly into the output buffer.
+     *
+     * @param cryptoObject unlocked {@link BiometricPrompt.CryptoObject} that is ready to use.
+     */
+    private void cipherBytes(BiometricPrompt.CryptoObject cryptoObject) {
+        final byte[] cipheredBytes;
+        final boolean success;
+        if (byteValue.bytes != null) {
+            cipheredBytes = mode == Mode.DECRYPTION
+                ? cryptoProxy.decrypt(cryptoObject, byteValue.bytes)
+                : cryptoProxy.encrypt(cryptoObject, byteValue.bytes);
+            success = cipheredBytes != null;
         } else {
-            cipherValue(result.getCryptoObject());
+            int written = mode == Mode.DECRYPTION
+                ? cryptoProxy.decrypt(cryptoObject, byteValue.input, byteValue.output)
+                : cryptoProxy.encrypt(cryptoObject, byteValue.input, byteValue.output);
+            cipheredBytes = null;
+            success = written >= 0;
         }
+
+        callbackExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (success) {
+                    log(Event.CIPHERED_BYTES);
+                    callback.onResult(new Goldfinger.Result(
+                        Goldfinger.Type.SUCCESS,
+                        Goldfinger.Reason.AUTHENTICATION_SUCCESS,
+                        cipheredBytes
+                    ));
+                } else {
+                    Exception e = (mode == Mode.DECRYPTION) ? new DecryptionException() : new EncryptionException();
+                    callback.onError(e);
+                }
+            }
+        });
     }
 
     /**
-     * Cancel Goldfinger authentication.
-     * <p>
-     * Native authentication will invoke {@link #onAuthenticationError}
-     * but the error will be ignored because the user knowingly canceled the authentication.
+     * Hand over unlocked Cipher to the stream callback, data is ciphered by the user afterwards.
+     *
+     * @param cryptoObject unlocked {@link BiometricPrompt.CryptoObject} that is ready to use.
      */
-    void cancel() {
-        isAuthenticationActive = false;
+    private void deliverCipherStream(@Nullable BiometricPrompt.CryptoObject cryptoObject) {
+        final Cipher cipher = cryptoObject != null ? cryptoObject.getCipher() : null;
+        callbackExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (cipher != null) {
+                    log(Event.CIPHER_STREAM_READY);
+                    streamCallback.onStreamReady(new CipherStream(cipher));
+                    callback.onResult(new Goldfinger.Result(
+                        Goldfinger.Type.SUCCESS,
+                        Goldfinger.Reason.AUTHENTICATION_SUCCESS
+                    ));
+                } else {
+                    Exception e = (mode == Mode.DECRYPTION) ? new DecryptionException() : new EncryptionException();
+                    callback.onError(e);
+                }
+            }
+        });
     }
 
     /**
@@ -127,11 +252,11 @@ class BiometricCallback extends BiometricPrompt.AuthenticationCallback {
             cipheredValue = cryptoProxy.encrypt(cryptoObject, value);
         }
 
-        MAIN_HANDLER.post(new Runnable() {
+        callbackExecutor.execute(new Runnable() {
             @Override
             public void run() {
                 if (cipheredValue != null) {
-                    log("Ciphered [%s] => [%s]", value, cipheredValue);
+                    log(Event.CIPHERED_VALUE, value, cipheredValue);
                     callback.onResult(new Goldfinger.Result(
                         Goldfinger.Type.SUCCESS,
                         Goldfinger.Reason.AUTHENTICATION_SUCCESS,
@@ -0,0 +1,58 @@
+package co.infinum.goldfinger;
+
+import androidx.biometric.BiometricManager;
+
+/**
+ * Snapshot of biometric capabilities for given authenticators,
+ * resolved with single {@link BiometricManager#canAuthenticate(int)} call.
+ */
+@SuppressWarnings("WeakerAccess")
+public class BiometricStatus {
+
+    private final int authenticators;
+    private final int code;
+
+    BiometricStatus(int authenticators, int code) {
+        this.authenticators = authenticators;
+        this.code = code;
+    }
+
+    /**
+     * Authenticators the status is resolved for.
+     *
+     * @see BiometricManager.Authenticators
+     */
+    public int authenticators() {
+        return authenticators;
+    }
+
+    /**
+     * @see BiometricManager#canAuthenticate(int)
+     */
+    public int code() {
+        return code;
+    }
+
+    /**
+     * Returns true if user can authenticate with given authenticators, false otherwise.
+     */
+    public boolean canAuthenticate() {
+        return code == BiometricManager.BIOMETRIC_SUCCESS;
+    }
+
+    /**
+     * Returns true if user has hardware for given authenticators, false otherwise.
+     */
+    public boolean hasHardware() {
+        return code != BiometricManager.BIOMETRIC_ERROR_NO_HARDWARE
+            && code != BiometricManager.BIOMETRIC_STATUS_UNKNOWN;
+    }
+
+    /**
+     * Returns true if user has enrolled biometrics or credentials for given authenticators, false otherwise.
+     */
+    public boolean hasEnrolled() {
+        return code != BiometricManager.BIOMETRIC_ERROR_NONE_ENROLLED
+            && code != BiometricManager.BIOMETRIC_STATUS_UNKNOWN;
+    }
+}
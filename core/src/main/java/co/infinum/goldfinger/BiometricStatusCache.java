@@ -0,0 +1,104 @@
+package co.infinum.goldfinger;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Bundle;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.biometric.BiometricManager;
+import co.infinum.goldfinger.GoldfingerLogger.Event;
+
+import static co.infinum.goldfinger.LogUtils.log;
+
+/**
+ * Process-wide cache of {@link BiometricStatus} snapshots.
+ * Cache is cleared whenever an Activity is resumed because the user may have
+ * changed enrolled biometrics in the meantime.
+ */
+class BiometricStatusCache {
+
+    @Nullable private static volatile BiometricStatusCache instance;
+
+    @NonNull private final BiometricManager biometricManager;
+    @NonNull private final Map<Integer, BiometricStatus> statuses = new ConcurrentHashMap<>();
+
+    private BiometricStatusCache(@NonNull Context context) {
+        this.biometricManager = BiometricManager.from(context);
+    }
+
+    @NonNull
+    static BiometricStatusCache getInstance(@NonNull Context context) {
+        BiometricStatusCache cache = instance;
+        if (cache == null) {
+            synchronized (BiometricStatusCache.class) {
+                cache = instance;
+                if (cache == null) {
+                    Context applicationContext = context.getApplicationContext();
+                    cache = new BiometricStatusCache(applicationContext != null ? applicationContext : context);
+                    cache.registerLifecycleCallbacks(applicationContext);
+                    instance = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    @NonNull
+    BiometricStatus get(int authenticators) {
+        BiometricStatus status = statuses.get(authenticators);
+        if (status == null) {
+            status = new BiometricStatus(authenticators, biometricManager.canAuthenticate(authenticators));
+            statuses.put(authenticators, status);
+        }
+        return status;
+    }
+
+    void invalidate() {
+        if (!statuses.isEmpty()) {
+            log(Event.STATUS_INVALIDATED);
+            statuses.clear();
+        }
+    }
+
+    private void registerLifecycleCallbacks(@Nullable Context applicationContext) {
+        if (!(applicationContext instanceof Application)) {
+            return;
+        }
+
+        ((Application) applicationContext).registerActivityLifecycleCallbacks(new Application.ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+            }
+
+            @Override
+            public void onActivityStarted(@NonNull Activity activity) {
+            }
+
+            @Override
+            public void onActivityResumed(@NonNull Activity activity) {
+                invalidate();
+            }
+
+            @Override
+            public void onActivityPaused(@NonNull Activity activity) {
+            }
+
+            @Override
+            public void onActivityStopped(@NonNull Activity activity) {
+            }
+
+            @Override
+            public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+            }
+
+            @Override
+            public void onActivityDestroyed(@NonNull Activity activity) {
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package co.infinum.goldfinger;
+
+import java.nio.ByteBuffer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Internal holder of binary value ciphered by byte[] and {@link ByteBuffer} variants
+ * of {@link Goldfinger#encrypt} and {@link Goldfinger#decrypt}.
+ * Either bytes or input and output buffers are set.
+ */
+class ByteValue {
+
+    @Nullable final byte[] bytes;
+    @Nullable final ByteBuffer input;
+    @Nullable final ByteBuffer output;
+
+    private ByteValue(@Nullable byte[] bytes, @Nullable ByteBuffer input, @Nullable ByteBuffer output) {
+        this.bytes = bytes;
+        this.input = input;
+        this.output = output;
+    }
+
+    @NonNull
+    static ByteValue of(@NonNull byte[] bytes) {
+        return new ByteValue(bytes, null, null);
+    }
+
+    @NonNull
+    static ByteValue of(@NonNull ByteBuffer input, @NonNull ByteBuffer output) {
+        return new ByteValue(null, input, output);
+    }
+}
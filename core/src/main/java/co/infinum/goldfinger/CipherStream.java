@@ -0,0 +1,56 @@
+package co.infinum.goldfinger;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Unlocked Cipher returned by {@link Goldfinger#encryptStream} and {@link Goldfinger#decryptStream}.
+ * Data is ciphered in chunks while it is written or read, so large payloads are never
+ * held in memory as a whole.
+ * <p>
+ * Cipher can be used for a single stream only. Streams can be used from any thread,
+ * move the work off the main thread for large payloads.
+ */
+@SuppressWarnings("WeakerAccess")
+public class CipherStream {
+
+    @NonNull private final Cipher cipher;
+    private boolean used = false;
+
+    CipherStream(@NonNull Cipher cipher) {
+        this.cipher = cipher;
+    }
+
+    /**
+     * Wrap given stream so that data read from it is ciphered.
+     * Closing returned stream closes the given stream.
+     */
+    @NonNull
+    public synchronized InputStream inputStream(@NonNull InputStream input) {
+        ensureUnused();
+        return new CipherInputStream(input, cipher);
+    }
+
+    /**
+     * Wrap given stream so that data written to it is ciphered.
+     * Returned stream must be closed to write the final block.
+     */
+    @NonNull
+    public synchronized OutputStream outputStream(@NonNull OutputStream output) {
+        ensureUnused();
+        return new CipherOutputStream(output, cipher);
+    }
+
+    private void ensureUnused() {
+        if (used) {
+            throw new IllegalStateException("Unlocked Cipher can be used for a single stream only.");
+        }
+        used = true;
+    }
+}
@@ -1,5 +1,6 @@
 package co.infinum.goldfinger;
 
+import java.nio.ByteBuffer;
 import java.security.Signature;
 
 import javax.crypto.Cipher;
@@ -8,6 +9,8 @@ import javax.crypto.Mac;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.biometric.BiometricPrompt;
+import androidx.tracing.Trace;
+import co.infinum.goldfinger.crypto.CipherByteCrypter;
 import co.infinum.goldfinger.crypto.CipherCrypter;
 import co.infinum.goldfinger.crypto.MacCrypter;
 import co.infinum.goldfinger.crypto.SignatureCrypter;
@@ -15,25 +18,131 @@ import co.infinum.goldfinger.crypto.SignatureCrypter;
 /**
  * Internal wrapper around different crypters to have this logic
  * in one place hidden from the rest of the code.
+ * <p>
+ * Every ciphering is timed for the stats and reported to the event listener, if any.
  */
 class CrypterProxy {
 
+    private static final String TRACE_CIPHER = "Goldfinger:cipher";
+
     private final @Nullable CipherCrypter cipherCrypter;
     private final @Nullable MacCrypter macCrypter;
     private final @Nullable SignatureCrypter signatureCrypter;
+    private final @Nullable CipherByteCrypter cipherByteCrypter;
+    private final @Nullable GoldfingerEventListener eventListener;
+    private final @NonNull StatsRecorder stats;
+
+    CrypterProxy(
+        @Nullable CipherCrypter cipherCrypter,
+        @Nullable MacCrypter macCrypter,
+        @Nullable SignatureCrypter signatureCrypter,
+        @Nullable CipherByteCrypter cipherByteCrypter
+    ) {
+        this(cipherCrypter, macCrypter, signatureCrypter, cipherByteCrypter, null, new StatsRecorder());
+    }
 
     CrypterProxy(
         @Nullable CipherCrypter cipherCrypter,
         @Nullable MacCrypter macCrypter,
-        @Nullable SignatureCrypter signatureCrypter
+        @Nullable SignatureCrypter signatureCrypter,
+        @Nullable CipherByteCrypter cipherByteCrypter,
+        @Nullable GoldfingerEventListener eventListener,
+        @NonNull StatsRecorder stats
     ) {
         this.cipherCrypter = cipherCrypter;
         this.macCrypter = macCrypter;
         this.signatureCrypter = signatureCrypter;
+        this.cipherByteCrypter = cipherByteCrypter;
+        this.eventListener = eventListener;
+        this.stats = stats;
     }
 
     @Nullable
     public String decrypt(@NonNull BiometricPrompt.CryptoObject cryptoObject, @NonNull String value) {
+        long startNanos = beginCipher();
+        String decrypted = null;
+        try {
+            decrypted = decryptValue(cryptoObject, value);
+            return decrypted;
+        } finally {
+            endCipher(startNanos, decrypted != null);
+        }
+    }
+
+    @Nullable
+    public String encrypt(@NonNull BiometricPrompt.CryptoObject cryptoObject, @NonNull String value) {
+        long startNanos = beginCipher();
+        String encrypted = null;
+        try {
+            encrypted = encryptValue(cryptoObject, value);
+            return encrypted;
+        } finally {
+            endCipher(startNanos, encrypted != null);
+        }
+    }
+
+    @Nullable
+    public byte[] decrypt(@NonNull BiometricPrompt.CryptoObject cryptoObject, @NonNull byte[] value) {
+        long startNanos = beginCipher();
+        byte[] decrypted = null;
+        try {
+            decrypted = decryptBytes(cryptoObject, value);
+            return decrypted;
+        } finally {
+            endCipher(startNanos, decrypted != null);
+        }
+    }
+
+    public int decrypt(@NonNull BiometricPrompt.CryptoObject cryptoObject, @NonNull ByteBuffer input, @NonNull ByteBuffer output) {
+        long startNanos = beginCipher();
+        int written = -1;
+        try {
+            written = decryptBuffer(cryptoObject, input, output);
+            return written;
+        } finally {
+            endCipher(startNanos, written >= 0);
+        }
+    }
+
+    @Nullable
+    public byte[] encrypt(@NonNull BiometricPrompt.CryptoObject cryptoObject, @NonNull byte[] value) {
+        long startNanos = beginCipher();
+        byte[] encrypted = null;
+        try {
+            encrypted = encryptBytes(cryptoObject, value);
+            return encrypted;
+        } finally {
+            endCipher(startNanos, encrypted != null);
+        }
+    }
+
+    public int encrypt(@NonNull BiometricPrompt.CryptoObject cryptoObject, @NonNull ByteBuffer input, @NonNull ByteBuffer output) {
+        long startNanos = beginCipher();
+        int written = -1;
+        try {
+            written = encryptBuffer(cryptoObject, input, output);
+            return written;
+        } finally {
+            endCipher(startNanos, written >= 0);
+        }
+    }
+
+    private long beginCipher() {
+        Trace.beginSection(TRACE_CIPHER);
+        return System.nanoTime();
+    }
+
+    private void endCipher(long startNanos, boolean success) {
+        long endNanos = System.nanoTime();
+        Trace.endSection();
+        stats.recordCipher(endNanos - startNanos);
+        if (eventListener != null) {
+            eventListener.onCipherFinished(startNanos, endNanos, success);
+        }
+    }
+
+    @Nullable
+    private String decryptValue(@NonNull BiometricPrompt.CryptoObject cryptoObject, @NonNull String value) {
         Cipher cipher = cryptoObject.getCipher();
         if (cipher != null && cipherCrypter != null) {
             return cipherCrypter.decrypt(cipher, value);
@@ -53,7 +162,7 @@ class CrypterProxy {
     }
 
     @Nullable
-    public String encrypt(@NonNull BiometricPrompt.CryptoObject cryptoObject, @NonNull String value) {
+    private String encryptValue(@NonNull BiometricPrompt.CryptoObject cryptoObject, @NonNull String value) {
         Cipher cipher = cryptoObject.getCipher();
         if (cipher != null && cipherCrypter != null) {
             return cipherCrypter.encrypt(cipher, value);
@@ -71,4 +180,42 @@ class CrypterProxy {
 
         return null;
     }
+
+    @Nullable
+    private byte[] decryptBytes(@NonNull BiometricPrompt.CryptoObject cryptoObject, @NonNull byte[] value) {
+        Cipher cipher = cryptoObject.getCipher();
+        if (cipher != null && cipherByteCrypter != null) {
+            return cipherByteCrypter.decrypt(cipher, value);
+        }
+
+        return null;
+    }
+
+    private int decryptBuffer(@NonNull BiometricPrompt.CryptoObject cryptoObject, @NonNull ByteBuffer input, @NonNull ByteBuffer output) {
+        Cipher cipher = cryptoObject.getCipher();
+        if (cipher != null && cipherByteCrypter != null) {
+            return cipherByteCrypter.decrypt(cipher, input, output);
+        }
+
+        return -1;
+    }
+
+    @Nullable
+    private byte[] encryptBytes(@NonNull BiometricPrompt.CryptoObject cryptoObject, @NonNull byte[] value) {
+        Cipher cipher = cryptoObject.getCipher();
+        if (cipher != null && cipherByteCrypter != null) {
+            return cipherByteCrypter.encrypt(cipher, value);
+        }
+
+        return null;
+    }
+
+    private int encryptBuffer(@NonNull BiometricPrompt.CryptoObject cryptoObject, @NonNull ByteBuffer input, @NonNull ByteBuffer output) {
+        Cipher cipher = cryptoObject.getCipher();
+        if (cipher != null && cipherByteCrypter != null) {
+            return cipherByteCrypter.encrypt(cipher, input, output);
+        }
+
+        return -1;
+    }
 }
@@ -8,7 +8,11 @@ import javax.crypto.Mac;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.biometric.BiometricPrompt;
+import androidx.tracing.Trace;
 import co.infinum.goldfinger.crypto.CipherFactory;
+import co.infinum.goldfinger.crypto.DeferredIvCipherFactory;
+import co.infinum.goldfinger.crypto.EmbeddedIvCipherFactory;
+import co.infinum.goldfinger.crypto.KeystoreProbe;
 import co.infinum.goldfinger.crypto.MacFactory;
 import co.infinum.goldfinger.crypto.SignatureFactory;
 
@@ -18,6 +22,8 @@ import co.infinum.goldfinger.crypto.SignatureFactory;
  */
 class CryptoObjectFactory {
 
+    private static final String TRACE_CREATE_CRYPTO_OBJECT = "Goldfinger:createCryptoObject";
+
     @Nullable private final CipherFactory cipherFactory;
     @Nullable private final MacFactory macFactory;
     @Nullable private final SignatureFactory signatureFactory;
@@ -32,10 +38,66 @@ class CryptoObjectFactory {
         this.signatureFactory = signatureFactory;
     }
 
+    /**
+     * @param value value which will be ciphered, required by {@link EmbeddedIvCipherFactory} on decryption.
+     */
+    @Nullable
+    BiometricPrompt.CryptoObject createCryptoObject(@NonNull String key, @Nullable String value, @NonNull Mode mode) {
+        return createCryptoObject(key, value, mode, false);
+    }
+
+    /**
+     * Create CryptoObject in advance. IV of encryption Cipher created by {@link DeferredIvCipherFactory}
+     * is not saved until {@link #onPreparedUsed} is called, so unused CryptoObject keeps the previous IV valid.
+     */
+    @Nullable
+    BiometricPrompt.CryptoObject createPreparedCryptoObject(@NonNull String key, @Nullable String value, @NonNull Mode mode) {
+        return createCryptoObject(key, value, mode, true);
+    }
+
+    /**
+     * Save IV of the CryptoObject created with {@link #createPreparedCryptoObject} once a request uses it.
+     */
+    void onPreparedUsed(@NonNull String key, @NonNull Mode mode, @NonNull BiometricPrompt.CryptoObject cryptoObject) {
+        Cipher cipher = cryptoObject.getCipher();
+        if (Mode.ENCRYPTION == mode && cipher != null && cipherFactory instanceof DeferredIvCipherFactory) {
+            ((DeferredIvCipherFactory) cipherFactory).saveIv(key, cipher);
+        }
+    }
+
+    /**
+     * @return true if the factory in use can check the keystore without creating a crypter.
+     */
+    boolean canProbeKeystore() {
+        return keystoreProbe() != null;
+    }
+
+    /**
+     * Check that the keystore responds, see {@link KeystoreProbe}.
+     *
+     * @throws java.security.ProviderException if the keystore fails.
+     */
+    void probeKeystore(@NonNull String key) {
+        KeystoreProbe keystoreProbe = keystoreProbe();
+        if (keystoreProbe != null) {
+            keystoreProbe.probeKeystore(key);
+        }
+    }
+
+    @Nullable
+    private BiometricPrompt.CryptoObject createCryptoObject(@NonNull String key, @Nullable String value, @NonNull Mode mode, boolean deferIv) {
+        Trace.beginSection(TRACE_CREATE_CRYPTO_OBJECT);
+        try {
+            return create(key, value, mode, deferIv);
+        } finally {
+            Trace.endSection();
+        }
+    }
+
     @Nullable
-    BiometricPrompt.CryptoObject createCryptoObject(@NonNull String key, @NonNull Mode mode) {
+    private BiometricPrompt.CryptoObject create(@NonNull String key, @Nullable String value, @NonNull Mode mode, boolean deferIv) {
         if (cipherFactory != null) {
-            return createCipherCryptoObject(key, mode);
+            return createCipherCryptoObject(key, value, mode, deferIv);
         } else if (macFactory != null) {
             return createMacCryptoObject(key, mode);
         } else if (signatureFactory != null) {
@@ -47,8 +109,17 @@ class CryptoObjectFactory {
 
     @Nullable
     @SuppressWarnings("ConstantConditions")
-    private BiometricPrompt.CryptoObject createCipherCryptoObject(String key, Mode mode) {
-        Cipher cipher = Mode.ENCRYPTION == mode ? cipherFactory.createEncryptionCrypter(key) : cipherFactory.createDecryptionCrypter(key);
+    private BiometricPrompt.CryptoObject createCipherCryptoObject(String key, String value, Mode mode, boolean deferIv) {
+        Cipher cipher;
+        if (Mode.ENCRYPTION == mode && deferIv && cipherFactory instanceof DeferredIvCipherFactory) {
+            cipher = ((DeferredIvCipherFactory) cipherFactory).createUnsavedEncryptionCrypter(key);
+        } else if (Mode.ENCRYPTION == mode) {
+            cipher = cipherFactory.createEncryptionCrypter(key);
+        } else if (cipherFactory instanceof EmbeddedIvCipherFactory && value != null) {
+            cipher = ((EmbeddedIvCipherFactory) cipherFactory).createDecryptionCrypter(key, value);
+        } else {
+            cipher = cipherFactory.createDecryptionCrypter(key);
+        }
         return cipher != null ? new BiometricPrompt.CryptoObject(cipher) : null;
     }
 
@@ -66,4 +137,10 @@ class CryptoObjectFactory {
             Mode.ENCRYPTION == mode ? signatureFactory.createEncryptionCrypter(key) : signatureFactory.createDecryptionCrypter(key);
         return signature != null ? new BiometricPrompt.CryptoObject(signature) : null;
     }
+
+    @Nullable
+    private KeystoreProbe keystoreProbe() {
+        Object factory = cipherFactory != null ? cipherFactory : macFactory != null ? macFactory : signatureFactory;
+        return factory instanceof KeystoreProbe ? (KeystoreProbe) factory : null;
+    }
 }
@@ -12,4 +12,8 @@ public class CryptoObjectInitException extends Exception {
     CryptoObjectInitException() {
         super("CryptoObject failed to create.");
     }
+
+    CryptoObjectInitException(String message) {
+        super(message);
+    }
 }
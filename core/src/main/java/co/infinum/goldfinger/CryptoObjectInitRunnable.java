@@ -1,48 +1,79 @@
 package co.infinum.goldfinger;
 
-import android.os.Handler;
-import android.os.Looper;
-
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.biometric.BiometricPrompt;
 
 /**
  * Custom runnable that creates CryptoObject.
- * Used for asynchronous creation.
+ * Used for asynchronous creation, callback is invoked on the background thread.
+ * Exception thrown by the factory is delivered as null CryptoObject and counted as keystore failure.
  */
 class CryptoObjectInitRunnable implements Runnable {
 
-    private final static Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
-
     @NonNull private final AsyncCryptoObjectFactory.Callback callback;
     @NonNull private final CryptoObjectFactory cryptoObjectFactory;
+    @NonNull private final KeystoreCircuitBreaker circuitBreaker;
+    @Nullable private final GoldfingerEventListener eventListener;
+    @NonNull private final StatsRecorder stats;
     @NonNull private final Mode mode;
     @NonNull private final String key;
+    @Nullable private final String value;
+    private final boolean prepared;
 
     CryptoObjectInitRunnable(
         @NonNull CryptoObjectFactory cryptoObjectFactory,
+        @NonNull KeystoreCircuitBreaker circuitBreaker,
+        @Nullable GoldfingerEventListener eventListener,
+        @NonNull StatsRecorder stats,
         @NonNull Mode mode,
         @NonNull String key,
+        @Nullable String value,
+        boolean prepared,
         @NonNull AsyncCryptoObjectFactory.Callback callback
     ) {
         this.cryptoObjectFactory = cryptoObjectFactory;
+        this.circuitBreaker = circuitBreaker;
+        this.eventListener = eventListener;
+        this.stats = stats;
         this.mode = mode;
         this.key = key;
+        this.value = value;
+        this.prepared = prepared;
         this.callback = callback;
     }
 
     @Override
     public void run() {
-        final BiometricPrompt.CryptoObject cryptoObject = cryptoObjectFactory.createCryptoObject(key, mode);
+        if (callback.isDone()) {
+            return;
+        }
 
-        if (!callback.canceled) {
-            /* Return callback back to main thread as this is executed in the background */
-            MAIN_HANDLER.post(new Runnable() {
-                @Override
-                public void run() {
-                    callback.onCryptoObjectCreated(cryptoObject);
-                }
-            });
+        long startNanos = System.nanoTime();
+        BiometricPrompt.CryptoObject cryptoObject;
+        boolean keystoreFailed = false;
+        try {
+            cryptoObject = prepared
+                ? cryptoObjectFactory.createPreparedCryptoObject(key, value, mode)
+                : cryptoObjectFactory.createCryptoObject(key, value, mode);
+        } catch (RuntimeException e) {
+            cryptoObject = null;
+            keystoreFailed = true;
+        }
+        long endNanos = System.nanoTime();
+        stats.recordCryptoObjectCreation(endNanos - startNanos);
+        if (eventListener != null) {
+            eventListener.onCryptoObjectCreated(key, startNanos, endNanos, cryptoObject != null);
+        }
+        if (keystoreFailed) {
+            if (!callback.isDone()) {
+                /* Timed out creation is already counted */
+                circuitBreaker.onFailure(key);
+            }
+        } else if (cryptoObject != null || !callback.isDone()) {
+            /* Null CryptoObject is Key state error, the keystore itself responded. Canceled creation says nothing. */
+            circuitBreaker.onSuccess(key);
         }
+        callback.deliver(cryptoObject);
     }
 }
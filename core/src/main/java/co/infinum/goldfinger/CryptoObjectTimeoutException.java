@@ -0,0 +1,25 @@
+package co.infinum.goldfinger;
+
+/**
+ * Thrown when CryptoObject is not created within the timeout.
+ * Keystore is unresponsive on some devices, fallback to other authentication method is recommended.
+ *
+ * @see Goldfinger.Builder#cryptoObjectTimeout(long)
+ */
+@SuppressWarnings("WeakerAccess")
+public class CryptoObjectTimeoutException extends CryptoObjectInitException {
+
+    private final long elapsedMillis;
+
+    CryptoObjectTimeoutException(long elapsedMillis) {
+        super("CryptoObject failed to create in " + elapsedMillis + "ms.");
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Return time in milliseconds from the request until the creation is given up.
+     */
+    public long elapsedMillis() {
+        return elapsedMillis;
+    }
+}
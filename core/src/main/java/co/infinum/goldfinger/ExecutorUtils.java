@@ -0,0 +1,189 @@
+package co.infinum.goldfinger;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Background executors shared by all Goldfinger instances.
+ */
+class ExecutorUtils {
+
+    private static final int POOL_SIZE = 2;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private ExecutorUtils() {
+    }
+
+    /**
+     * Return process-wide bounded pool for keystore work. Pool is created on first use and its threads
+     * are stopped once they are idle for a while, so thread count stays flat no matter
+     * how many Goldfinger instances are built.
+     */
+    @NonNull
+    static Executor sharedExecutor() {
+        return SharedPoolHolder.POOL;
+    }
+
+    /**
+     * Return process-wide bounded pool for BiometricPrompt callbacks. It is separate from
+     * {@link #sharedExecutor()} because interruption does not unblock stuck keystore call,
+     * so blocked CryptoObject creations and probes could otherwise starve every prompt.
+     */
+    @NonNull
+    static Executor promptExecutor() {
+        return PromptPoolHolder.POOL;
+    }
+
+    /**
+     * Return executor which posts tasks to the main thread.
+     */
+    @NonNull
+    static Executor mainThreadExecutor() {
+        return MainThreadExecutorHolder.EXECUTOR;
+    }
+
+    /**
+     * Run given runnable immediately if called from the main thread, otherwise post it to the main thread.
+     */
+    static void runOnMainThread(@NonNull Runnable runnable) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            runnable.run();
+        } else {
+            mainThreadExecutor().execute(runnable);
+        }
+    }
+
+    /**
+     * Wrap given executor so that tasks run one at a time in submission order.
+     * No thread is owned by the returned executor.
+     */
+    @NonNull
+    static Executor serial(@NonNull Executor executor) {
+        return new SerialExecutor(executor);
+    }
+
+    @NonNull
+    private static ThreadPoolExecutor createPool(@NonNull final String namePrefix) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            POOL_SIZE,
+            POOL_SIZE,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, namePrefix + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static class MainThreadExecutorHolder {
+
+        static final Executor EXECUTOR = new Executor() {
+            private final Handler handler = new Handler(Looper.getMainLooper());
+
+            @Override
+            public void execute(@NonNull Runnable runnable) {
+                handler.post(runnable);
+            }
+        };
+    }
+
+    private static class SharedPoolHolder {
+
+        static final ThreadPoolExecutor POOL = createPool("Goldfinger #");
+    }
+
+    private static class PromptPoolHolder {
+
+        static final ThreadPoolExecutor POOL = createPool("Goldfinger prompt #");
+    }
+
+    /**
+     * Keystore operations and BiometricPrompt callbacks expect serial execution,
+     * tasks are therefore queued and handed over to the underlying executor one by one.
+     * <p>
+     * If the underlying executor rejects a task, e.g. because the app shut it down, the caller
+     * of {@link #execute} receives {@link RejectedExecutionException} and its task is dropped.
+     * Tasks queued before it stay in order and are handed over again on the next call.
+     */
+    private static class SerialExecutor implements Executor {
+
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private final Executor executor;
+        private Runnable active;
+
+        SerialExecutor(@NonNull Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public synchronized void execute(@NonNull final Runnable runnable) {
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        runnable.run();
+                    } finally {
+                        onTaskFinished();
+                    }
+                }
+            };
+            tasks.offer(task);
+            if (active == null) {
+                try {
+                    scheduleNext();
+                } catch (RejectedExecutionException e) {
+                    tasks.removeLastOccurrence(task);
+                    throw e;
+                }
+            }
+        }
+
+        private synchronized void onTaskFinished() {
+            try {
+                scheduleNext();
+            } catch (RejectedExecutionException ignored) {
+                /* Next execute call hands the queued tasks over again and reports the rejection to its caller */
+            }
+        }
+
+        /**
+         * Hand the next task over to the underlying executor. Rejected task is returned to the head
+         * of the queue and nothing is active, otherwise every later task would wait for it forever.
+         */
+        private synchronized void scheduleNext() {
+            active = tasks.poll();
+            if (active == null) {
+                return;
+            }
+
+            try {
+                executor.execute(active);
+            } catch (RejectedExecutionException e) {
+                tasks.addFirst(active);
+                active = null;
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package co.infinum.goldfinger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Proxy callback used when identical authenticate calls are coalesced into single prompt.
+ * Every result is forwarded to all callbacks that joined the operation.
+ */
+class FanOutCallback implements Goldfinger.Callback {
+
+    @NonNull private final List<Goldfinger.Callback> callbacks = new CopyOnWriteArrayList<>();
+    @NonNull private final OperationState operation;
+    private boolean closed = false;
+
+    FanOutCallback(@NonNull OperationState operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Add callback to the shared operation.
+     *
+     * @return handle which cancels the shared operation only when all waiters cancel,
+     * null if the operation is already finished and can not be joined anymore.
+     */
+    @Nullable
+    synchronized Goldfinger.Operation join(@NonNull Goldfinger.Callback callback) {
+        if (closed || operation.isDone()) {
+            return null;
+        }
+
+        callbacks.add(callback);
+        return new Waiter(callback);
+    }
+
+    @Override
+    public void onError(@NonNull Exception e) {
+        for (Goldfinger.Callback callback : callbacks) {
+            callback.onError(e);
+        }
+    }
+
+    @Override
+    public void onResult(@NonNull Goldfinger.Result result) {
+        for (Goldfinger.Callback callback : callbacks) {
+            callback.onResult(result);
+        }
+    }
+
+    private class Waiter implements Goldfinger.Operation {
+
+        @NonNull private final Goldfinger.Callback callback;
+        private volatile boolean canceled = false;
+
+        Waiter(@NonNull Goldfinger.Callback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void cancel() {
+            boolean last;
+            synchronized (FanOutCallback.this) {
+                if (!callbacks.remove(callback)) {
+                    return;
+                }
+                canceled = true;
+                last = callbacks.isEmpty();
+                closed = last;
+            }
+
+            /* Cancel outside of the lock, finish listener takes scheduler lock */
+            if (last) {
+                operation.cancel();
+            }
+        }
+
+        @Override
+        public boolean isDone() {
+            return canceled || operation.isDone();
+        }
+
+        @NonNull
+        @Override
+        public Goldfinger.State state() {
+            return canceled ? Goldfinger.State.DONE : operation.state();
+        }
+    }
+}
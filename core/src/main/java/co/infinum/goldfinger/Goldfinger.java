@@ -3,6 +3,11 @@ package co.infinum.goldfinger;
 import android.content.Context;
 import android.os.Build;
 
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
@@ -11,6 +16,7 @@ import androidx.biometric.BiometricManager;
 import androidx.biometric.BiometricPrompt;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
+import co.infinum.goldfinger.crypto.CipherByteCrypter;
 import co.infinum.goldfinger.crypto.CipherCrypter;
 import co.infinum.goldfinger.crypto.CipherFactory;
 import co.infinum.goldfinger.crypto.MacCrypter;
@@ -19,6 +25,7 @@ import co.infinum.goldfinger.crypto.SignatureCrypter;
 import co.infinum.goldfinger.crypto.SignatureFactory;
 import co.infinum.goldfinger.crypto.impl.AesCipherFactory;
 import co.infinum.goldfinger.crypto.impl.Base64CipherCrypter;
+import co.infinum.goldfinger.crypto.impl.RawCipherByteCrypter;
 
 @SuppressWarnings("unused")
 public interface Goldfinger {
@@ -68,14 +75,29 @@ public interface Goldfinger {
      */
     boolean canAuthenticate(int authenticators);
 
+    /**
+     * Return biometric capabilities for given authenticators resolved with single system call.
+     * Status is cached and refreshed when an Activity is resumed or authentication fails
+     * with an error, so it can be queried freely.
+     *
+     * @see BiometricManager.Authenticators
+     */
+    @NonNull
+    BiometricStatus status(int authenticators);
+
     /**
      * Authenticate user via Biometrics.
      * <p>
      * Example - Process payment after successful biometric authentication.
+     * <p>
+     * All authenticate, encrypt and decrypt variants return {@link Operation} handle,
+     * which cancels only this call and can not affect later calls.
      *
+     * @return handle of the started operation, already done if the call is rejected.
      * @see PromptParams
      */
-    void authenticate(@NonNull PromptParams params, @NonNull Callback callback);
+    @NonNull
+    Operation authenticate(@NonNull PromptParams params, @NonNull Callback callback);
 
     /**
      * Authenticate user via Biometrics. If user is successfully authenticated,
@@ -92,7 +114,8 @@ public interface Goldfinger {
      * @param callback callback
      * @see Goldfinger.Callback
      */
-    void encrypt(
+    @NonNull
+    Operation encrypt(
         @NonNull PromptParams params,
         @NonNull String key,
         @NonNull String value,
@@ -108,7 +131,8 @@ public interface Goldfinger {
      * @param key   unique key identifier, used to load Cipher IV internally
      * @param value String value which will be decrypted if user successfully authenticates
      */
-    void decrypt(
+    @NonNull
+    Operation decrypt(
         @NonNull PromptParams params,
         @NonNull String key,
         @NonNull String value,
@@ -116,7 +140,181 @@ public interface Goldfinger {
     );
 
     /**
-     * Cancel current active Biometrics authentication.
+     * Binary variant of {@link Goldfinger#encrypt}. Value is encrypted with {@link CipherByteCrypter}
+     * and encrypted bytes are returned in {@link Result#bytes()}, no String encoding is done.
+     * <p>
+     * Requires {@link CipherFactory} which stores IV itself, e.g. {@link AesCipherFactory}.
+     *
+     * @param key   unique key identifier, used to store cipher IV internally
+     * @param value bytes which will be encrypted if user successfully authenticates
+     */
+    @NonNull
+    Operation encrypt(@NonNull PromptParams params, @NonNull String key, @NonNull byte[] value, @NonNull Callback callback);
+
+    /**
+     * Binary variant of {@link Goldfinger#decrypt}. Decrypted bytes are returned in {@link Result#bytes()}.
+     *
+     * @param key   unique key identifier, used to load Cipher IV internally
+     * @param value bytes which will be decrypted if user successfully authenticates
+     */
+    @NonNull
+    Operation decrypt(@NonNull PromptParams params, @NonNull String key, @NonNull byte[] value, @NonNull Callback callback);
+
+    /**
+     * Buffer variant of {@link Goldfinger#encrypt}. Remaining bytes of input buffer are encrypted
+     * directly into output buffer, which can be direct buffer. No intermediate copies are made.
+     * <p>
+     * Buffers must not be modified until the result is received. Output position is advanced by
+     * the number of encrypted bytes, {@link Result#bytes()} is null.
+     *
+     * @param key    unique key identifier, used to store cipher IV internally
+     * @param input  buffer which will be encrypted if user successfully authenticates
+     * @param output buffer which receives encrypted bytes, must have enough space for the result
+     */
+    @NonNull
+    Operation encrypt(
+        @NonNull PromptParams params,
+        @NonNull String key,
+        @NonNull ByteBuffer input,
+        @NonNull ByteBuffer output,
+        @NonNull Callback callback
+    );
+
+    /**
+     * Buffer variant of {@link Goldfinger#decrypt}.
+     *
+     * @param key    unique key identifier, used to load Cipher IV internally
+     * @param input  buffer which will be decrypted if user successfully authenticates
+     * @param output buffer which receives decrypted bytes, must have enough space for the result
+     * @see #encrypt(PromptParams, String, ByteBuffer, ByteBuffer, Callback)
+     */
+    @NonNull
+    Operation decrypt(
+        @NonNull PromptParams params,
+        @NonNull String key,
+        @NonNull ByteBuffer input,
+        @NonNull ByteBuffer output,
+        @NonNull Callback callback
+    );
+
+    /**
+     * Authenticate user via Biometrics. If user is successfully authenticated,
+     * all given values are encrypted together with single unlocked CryptoObject.
+     * <p>
+     * Use it when multiple values should be restored with one prompt (e.g. token and PIN).
+     * {@link Result#value()} contains single encrypted String which should be passed to
+     * {@link Goldfinger#decryptValues} to restore the values.
+     *
+     * @param key    unique key identifier, used to store cipher IV internally
+     * @param values values which will be encrypted if user successfully authenticates
+     */
+    @NonNull
+    Operation encryptValues(
+        @NonNull PromptParams params,
+        @NonNull String key,
+        @NonNull Map<String, String> values,
+        @NonNull Callback callback
+    );
+
+    /**
+     * Authenticate user via Biometrics. If user is successfully authenticated,
+     * value encrypted with {@link Goldfinger#encryptValues} is decrypted and
+     * restored values are returned in {@link Result#values()}.
+     *
+     * @param key   unique key identifier, used to load Cipher IV internally
+     * @param value String value returned by {@link Goldfinger#encryptValues}
+     */
+    @NonNull
+    Operation decryptValues(
+        @NonNull PromptParams params,
+        @NonNull String key,
+        @NonNull String value,
+        @NonNull Callback callback
+    );
+
+    /**
+     * Authenticate user via Biometrics. If user is successfully authenticated,
+     * unlocked Cipher is returned in {@link StreamCallback#onStreamReady} and
+     * data can be encrypted in chunks while it is written to the stream.
+     * <p>
+     * Use it for large payloads that should not be held in memory at once.
+     * Requires {@link CipherFactory} which stores IV itself, e.g. {@link AesCipherFactory}.
+     *
+     * @param key unique key identifier, used to store cipher IV internally
+     */
+    @NonNull
+    Operation encryptStream(@NonNull PromptParams params, @NonNull String key, @NonNull StreamCallback callback);
+
+    /**
+     * Authenticate user via Biometrics. If user is successfully authenticated,
+     * unlocked Cipher is returned in {@link StreamCallback#onStreamReady} and
+     * data can be decrypted in chunks while it is read from the stream.
+     * <p>
+     * Should be used together with {@link Goldfinger#encryptStream} to decrypt saved data.
+     *
+     * @param key unique key identifier, used to load Cipher IV internally
+     */
+    @NonNull
+    Operation decryptStream(@NonNull PromptParams params, @NonNull String key, @NonNull StreamCallback callback);
+
+    /**
+     * Create CryptoObject for {@link Goldfinger#encrypt} in advance, e.g. when the screen is opened,
+     * so that the prompt does not wait for Keystore once encryption is requested.
+     * <p>
+     * Prepared CryptoObject is used by the next {@link Goldfinger#encrypt} call with the same key
+     * and is discarded if it is not used for a while. IV of prepared CryptoObject is saved only once
+     * it is used, if the factory is {@link co.infinum.goldfinger.crypto.DeferredIvCipherFactory}
+     * like default {@link AesCipherFactory}.
+     *
+     * @param key unique key identifier, used to store cipher IV internally
+     */
+    void prepareEncryption(@NonNull String key);
+
+    /**
+     * Create CryptoObject for {@link Goldfinger#decrypt} in advance, e.g. when the screen is opened,
+     * so that the prompt does not wait for Keystore once decryption is requested.
+     * <p>
+     * Prepared CryptoObject is used by the next {@link Goldfinger#decrypt} call with the same key and value
+     * and is discarded if it is not used for a while.
+     *
+     * @param key   unique key identifier, used to load Cipher IV internally
+     * @param value String value which will be decrypted
+     */
+    void prepareDecryption(@NonNull String key, @NonNull String value);
+
+    /**
+     * Return remaining lifetime of the current authentication session in milliseconds.
+     * Cipher operations started within this period do not show the prompt.
+     *
+     * @return remaining time, 0 if there is no active session or sessions are not enabled.
+     * @see Builder#sessionDuration(int)
+     */
+    long sessionRemainingMillis();
+
+    /**
+     * End current authentication session, next cipher operation shows the prompt again.
+     * Keystore still keeps the Keys unlocked until their validity duration passes.
+     */
+    void endSession();
+
+    /**
+     * Return state of the active operation. Safe to call from any thread.
+     *
+     * @return current state, {@link State#IDLE} if no operation is active.
+     */
+    @NonNull
+    State state();
+
+    /**
+     * Return snapshot of result counters and phase latencies collected by this instance.
+     * Collecting is lock-free and always on, taking the snapshot is cheap.
+     */
+    @NonNull
+    GoldfingerStats stats();
+
+    /**
+     * Cancel current active Biometrics authentication and every queued operation.
+     * Safe to call from any thread.
      */
     void cancel();
 
@@ -127,7 +325,10 @@ public interface Goldfinger {
     class Builder {
 
         @NonNull private final Context context;
+        @Nullable private CipherByteCrypter cipherByteCrypter;
         @Nullable private CipherFactory cipherFactory;
+        @Nullable private Executor callbackExecutor;
+        @Nullable private Executor executor;
         @Nullable private MacFactory macFactory;
         @Nullable private SignatureFactory signatureFactory;
         @Nullable private CipherCrypter cipherCrypter;
@@ -135,6 +336,9 @@ public interface Goldfinger {
         @Nullable private SignatureCrypter signatureCrypter;
         @Nullable private String key;
         @Nullable private String value;
+        private int sessionDurationSeconds;
+        private long cryptoObjectTimeoutMillis;
+        @Nullable private GoldfingerEventListener eventListener;
 
         public Builder(@NonNull Context context) {
             this.context = context;
@@ -151,6 +355,22 @@ public interface Goldfinger {
             }
         }
 
+        /**
+         * Executor on which {@link Callback} results are delivered. Main thread is used by default.
+         * Direct executor can be used if results are moved to another thread anyway, e.g. with Rx.
+         */
+        @NonNull
+        public Builder callbackExecutor(@Nullable Executor callbackExecutor) {
+            this.callbackExecutor = callbackExecutor;
+            return this;
+        }
+
+        @NonNull
+        public Builder cipherByteCrypter(@Nullable CipherByteCrypter cipherByteCrypter) {
+            this.cipherByteCrypter = cipherByteCrypter;
+            return this;
+        }
+
         @NonNull
         public Builder cipherCrypter(@Nullable CipherCrypter cipherCrypter) {
             this.cipherCrypter = cipherCrypter;
@@ -163,9 +383,58 @@ public interface Goldfinger {
             return this;
         }
 
+        /**
+         * Give up CryptoObject creation if it takes longer than given timeout, which can happen
+         * if the keystore is unresponsive. Operation then fails with {@link CryptoObjectTimeoutException}
+         * so the app can fall back to other authentication method.
+         *
+         * @param millis timeout measured from the request, 0 disables the timeout
+         */
+        @NonNull
+        public Builder cryptoObjectTimeout(long millis) {
+            this.cryptoObjectTimeoutMillis = millis;
+            return this;
+        }
+
+        /**
+         * Receive timings of every operation phase. Nothing is measured if the listener is not set.
+         * Key and Cipher phases are reported only by default {@link AesCipherFactory}.
+         */
+        @NonNull
+        public Builder eventListener(@Nullable GoldfingerEventListener eventListener) {
+            this.eventListener = eventListener;
+            return this;
+        }
+
+        /**
+         * Executor used for Keystore operations and BiometricPrompt callbacks.
+         * By default, they run on two separate bounded pools shared by all Goldfinger instances.
+         * Stuck keystore call cannot be interrupted, size the executor so that blocked Keystore
+         * operations do not leave BiometricPrompt callbacks without a thread.
+         * Goldfinger calls throw {@link java.util.concurrent.RejectedExecutionException} once the executor rejects tasks.
+         */
+        @NonNull
+        public Builder executor(@Nullable Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Log to Logcat, shortcut for {@link #logger(GoldfingerLogger)} with default logger.
+         */
         @NonNull
         public Builder logEnabled(boolean logEnabled) {
-            LogUtils.setEnabled(logEnabled);
+            LogUtils.setLogger(logEnabled ? new LogUtils.LogcatLogger() : null);
+            return this;
+        }
+
+        /**
+         * Send log events to given logger, null disables logging. Logger is shared by all
+         * Goldfinger instances because internal components such as biometric status cache are shared too.
+         */
+        @NonNull
+        public Builder logger(@Nullable GoldfingerLogger logger) {
+            LogUtils.setLogger(logger);
             return this;
         }
 
@@ -181,6 +450,23 @@ public interface Goldfinger {
             return this;
         }
 
+        /**
+         * Enable time-boxed authentication session. After successful authentication, cipher operations
+         * within given number of seconds run without the prompt. Only
+         * {@link BiometricManager.Authenticators#BIOMETRIC_STRONG} can be used with sessions.
+         * <p>
+         * Default {@link AesCipherFactory} creates Keys with the same authentication validity duration.
+         * Custom {@link CipherFactory} must do the same. Keys created before the session is enabled
+         * still require authentication for every use, rotate them to use sessions.
+         *
+         * @param seconds session duration, 0 disables the session
+         */
+        @NonNull
+        public Builder sessionDuration(int seconds) {
+            this.sessionDurationSeconds = seconds;
+            return this;
+        }
+
         @NonNull
         public Builder signatureCrypter(@Nullable SignatureCrypter signatureCrypter) {
             this.signatureCrypter = signatureCrypter;
@@ -200,17 +486,43 @@ public interface Goldfinger {
                 this.cipherCrypter = new Base64CipherCrypter();
             }
             if (macFactory == null && signatureFactory == null && cipherFactory == null) {
-                this.cipherFactory = new AesCipherFactory(context);
+                this.cipherFactory = new AesCipherFactory(context, sessionDurationSeconds, eventListener);
             }
+            if (cipherByteCrypter == null) {
+                this.cipherByteCrypter = new RawCipherByteCrypter();
+            }
+            /* App-owned executor runs both, otherwise prompt callbacks get their own pool so stuck keystore work cannot starve them */
+            Executor keystoreExecutor = executor != null ? executor : ExecutorUtils.sharedExecutor();
+            Executor promptExecutor = executor != null ? executor : ExecutorUtils.promptExecutor();
+            if (callbackExecutor == null) {
+                this.callbackExecutor = ExecutorUtils.mainThreadExecutor();
+            }
+            StatsRecorder stats = new StatsRecorder();
             AsyncCryptoObjectFactory asyncFactory = new AsyncCryptoObjectFactory(
-                new CryptoObjectFactory(cipherFactory, macFactory, signatureFactory)
+                new CryptoObjectFactory(cipherFactory, macFactory, signatureFactory),
+                new KeystoreCircuitBreaker(),
+                keystoreExecutor,
+                cryptoObjectTimeoutMillis,
+                eventListener,
+                stats
             );
-            CrypterProxy cryptoProxy = new CrypterProxy(cipherCrypter, macCrypter, signatureCrypter);
+            CrypterProxy cryptoProxy =
+                new CrypterProxy(cipherCrypter, macCrypter, signatureCrypter, cipherByteCrypter, eventListener, stats);
 
-            return new GoldfingerImpl(context, asyncFactory, cryptoProxy);
+            AuthSession session = sessionDurationSeconds > 0 ? new AuthSession(sessionDurationSeconds) : null;
+
+            return new GoldfingerImpl(context, asyncFactory, cryptoProxy, session, promptExecutor, callbackExecutor, eventListener, stats);
         }
 
         private void ensureParamsValid() {
+            if (sessionDurationSeconds < 0) {
+                throw new RuntimeException("Session duration must not be negative.");
+            }
+
+            if (cryptoObjectTimeoutMillis < 0) {
+                throw new RuntimeException("CryptoObject timeout must not be negative.");
+            }
+
             if (macFactory != null && macCrypter == null || macFactory == null && macCrypter != null) {
                 throw new RuntimeException(
                     "To use CryptoObject with MacObject you must provide both MacFactory and "
@@ -240,6 +552,8 @@ public interface Goldfinger {
         private final boolean confirmationRequired;
         private final boolean deviceCredentialsAllowed;
         private final int allowedAuthenticators;
+        @NonNull private final Priority priority;
+        @Nullable private volatile BiometricPrompt.PromptInfo promptInfo;
 
         private PromptParams(
             @NonNull Object dialogOwner,
@@ -249,7 +563,8 @@ public interface Goldfinger {
             @Nullable String subtitle,
             boolean confirmationRequired,
             boolean deviceCredentialsAllowed,
-            int allowedAuthenticators
+            int allowedAuthenticators,
+            @NonNull Priority priority
         ) {
             this.dialogOwner = dialogOwner;
             this.title = title;
@@ -259,6 +574,7 @@ public interface Goldfinger {
             this.confirmationRequired = confirmationRequired;
             this.deviceCredentialsAllowed = deviceCredentialsAllowed;
             this.allowedAuthenticators = allowedAuthenticators;
+            this.priority = priority;
         }
 
         @NonNull
@@ -298,23 +614,46 @@ public interface Goldfinger {
             return allowedAuthenticators;
         }
 
+        @NonNull
+        public Priority priority() {
+            return priority;
+        }
+
         /**
-         * Create new {@link BiometricPrompt.PromptInfo} instance. Parameter
-         * validation is done earlier in the code so we can trust the data at
-         * this step.
+         * Returns true if both params show the same prompt in the same dialog owner.
+         * Priority is ignored as it does not change the prompt.
+         */
+        boolean sameAs(@NonNull PromptParams other) {
+            return this == other || (dialogOwner == other.dialogOwner
+                && confirmationRequired == other.confirmationRequired
+                && allowedAuthenticators == other.allowedAuthenticators
+                && StringUtils.equals(title, other.title)
+                && StringUtils.equals(subtitle, other.subtitle)
+                && StringUtils.equals(description, other.description)
+                && StringUtils.equals(negativeButtonText, other.negativeButtonText));
+        }
+
+        /**
+         * Return {@link BiometricPrompt.PromptInfo} instance. It is created on first use and
+         * reused afterwards as params are immutable. Parameter validation is done when params
+         * are built so we can trust the data at this step.
          */
         @SuppressWarnings("ConstantConditions")
         @NonNull
-        BiometricPrompt.PromptInfo buildPromptInfo() {
-            BiometricPrompt.PromptInfo.Builder builder = new BiometricPrompt.PromptInfo.Builder()
-                .setTitle(title)
-                .setSubtitle(subtitle)
-                .setDescription(description)
-                .setAllowedAuthenticators(allowedAuthenticators)
-                .setNegativeButtonText(negativeButtonText)
-                .setConfirmationRequired(confirmationRequired);
-
-            return builder.build();
+        BiometricPrompt.PromptInfo promptInfo() {
+            BiometricPrompt.PromptInfo promptInfo = this.promptInfo;
+            if (promptInfo == null) {
+                promptInfo = new BiometricPrompt.PromptInfo.Builder()
+                    .setTitle(title)
+                    .setSubtitle(subtitle)
+                    .setDescription(description)
+                    .setAllowedAuthenticators(allowedAuthenticators)
+                    .setNegativeButtonText(negativeButtonText)
+                    .setConfirmationRequired(confirmationRequired)
+                    .build();
+                this.promptInfo = promptInfo;
+            }
+            return promptInfo;
         }
 
         public static class Builder {
@@ -327,6 +666,7 @@ public interface Goldfinger {
             @Nullable private String title;
             private boolean confirmationRequired;
             private int allowedAuthenticators = BiometricManager.Authenticators.BIOMETRIC_WEAK;
+            @NonNull private Priority priority = Priority.NORMAL;
 
             public Builder(@NonNull FragmentActivity activity) {
                 this.dialogOwner = activity;
@@ -336,11 +676,16 @@ public interface Goldfinger {
                 this.dialogOwner = fragment;
             }
 
+            /**
+             * Build immutable params which can be reused for any number of operations.
+             *
+             * @throws RuntimeException if params are invalid.
+             */
             @NonNull
             public PromptParams build() {
                 boolean deviceCredentialAllowed = (allowedAuthenticators & BiometricManager.Authenticators.DEVICE_CREDENTIAL) != 0;
 
-                return new PromptParams(
+                PromptParams params = new PromptParams(
                     dialogOwner,
                     title,
                     description,
@@ -348,8 +693,14 @@ public interface Goldfinger {
                     subtitle,
                     confirmationRequired,
                     deviceCredentialAllowed,
-                    allowedAuthenticators
+                    allowedAuthenticators,
+                    priority
                 );
+                List<String> errors = ValidateUtils.validatePromptParams(params);
+                if (!errors.isEmpty()) {
+                    throw new RuntimeException(StringUtils.join(errors));
+                }
+                return params;
             }
 
             /**
@@ -442,6 +793,16 @@ public interface Goldfinger {
                 return this;
             }
 
+            /**
+             * Set operation priority, {@link Priority#NORMAL} by default. Use {@link Priority#HIGH}
+             * for prompts that must not wait, e.g. payment confirmation.
+             */
+            @NonNull
+            public Builder priority(@NonNull Priority priority) {
+                this.priority = priority;
+                return this;
+            }
+
             @Nullable
             private String getString(@StringRes int resId) {
                 if (dialogOwner instanceof Fragment) {
@@ -490,15 +851,63 @@ public interface Goldfinger {
          */
         @Nullable private final String message;
 
+        /**
+         * Decrypted values. IFF {@link Goldfinger#decryptValues} is used,
+         * contains all values restored after successful authentication.
+         * <p>
+         * In all other cases, the values are null.
+         */
+        @Nullable private final Map<String, String> values;
+
+        /**
+         * Ciphered bytes. IFF byte[] variant of {@link Goldfinger#encrypt} or {@link Goldfinger#decrypt}
+         * is used, contains encrypted or decrypted bytes.
+         * <p>
+         * In all other cases, the bytes are null.
+         */
+        @Nullable private final byte[] bytes;
+
         Result(@NonNull Type type, @NonNull Reason reason) {
             this(type, reason, null, null);
         }
 
+        Result(@NonNull Type type, @NonNull Reason reason, @Nullable byte[] bytes) {
+            this(type, reason, null, null, null, bytes);
+        }
+
         Result(@NonNull Type type, @NonNull Reason reason, @Nullable String value, @Nullable String message) {
+            this(type, reason, value, message, null);
+        }
+
+        Result(
+            @NonNull Type type,
+            @NonNull Reason reason,
+            @Nullable String value,
+            @Nullable String message,
+            @Nullable Map<String, String> values
+        ) {
+            this(type, reason, value, message, values, null);
+        }
+
+        private Result(
+            @NonNull Type type,
+            @NonNull Reason reason,
+            @Nullable String value,
+            @Nullable String message,
+            @Nullable Map<String, String> values,
+            @Nullable byte[] bytes
+        ) {
             this.type = type;
             this.reason = reason;
             this.value = value;
             this.message = message;
+            this.values = values;
+            this.bytes = bytes;
+        }
+
+        @Nullable
+        public byte[] bytes() {
+            return bytes;
         }
 
         @Nullable
@@ -520,6 +929,11 @@ public interface Goldfinger {
         public String value() {
             return value;
         }
+
+        @Nullable
+        public Map<String, String> values() {
+            return values;
+        }
     }
 
     /**
@@ -546,6 +960,20 @@ public interface Goldfinger {
         void onError(@NonNull Exception e);
     }
 
+    /**
+     * Callback used by {@link Goldfinger#encryptStream} and {@link Goldfinger#decryptStream}.
+     */
+    interface StreamCallback extends Callback {
+
+        /**
+         * Invoked once after successful authentication, just before {@link Type#SUCCESS} result.
+         *
+         * @param stream unlocked Cipher used to wrap the stream which should be ciphered
+         * @see CipherStream
+         */
+        void onStreamReady(@NonNull CipherStream stream);
+    }
+
     /**
      * Describes in detail why {@link Callback#onResult} is dispatched.
      */
@@ -636,6 +1064,12 @@ public interface Goldfinger {
          */
         AUTHENTICATION_FAIL,
 
+        /**
+         * Operation is canceled before the user is authenticated because operation with higher {@link Priority} is started.
+         * Request can be repeated once the other operation is finished.
+         */
+        PREEMPTED,
+
         /**
          * Unknown reason.
          */
@@ -666,4 +1100,76 @@ public interface Goldfinger {
          */
         ERROR
     }
+
+    /**
+     * Handle of single authenticate, encrypt or decrypt call.
+     */
+    interface Operation {
+
+        /**
+         * Cancel this operation if it is still active. Results of canceled operation are not delivered.
+         * Other operations, including the ones started later, are not affected.
+         */
+        void cancel();
+
+        /**
+         * Returns true if the operation is finished, canceled or rejected, false otherwise.
+         */
+        boolean isDone();
+
+        /**
+         * Returns current phase of the operation.
+         */
+        @NonNull
+        State state();
+    }
+
+    /**
+     * Priority of the operation, see {@link PromptParams.Builder#priority}.
+     * Operations are queued while other operation is active and started in priority order.
+     * Operation with higher priority cancels active operation with lower priority, unless
+     * the user is already authenticated. Such operation finishes first and is followed by it.
+     */
+    enum Priority {
+        LOW,
+        NORMAL,
+        HIGH
+    }
+
+    /**
+     * Describes the phase of the current operation, see {@link Goldfinger#state()}.
+     */
+    enum State {
+
+        /**
+         * No operation is active.
+         */
+        IDLE,
+
+        /**
+         * Operation waits until the active operation is finished.
+         */
+        QUEUED,
+
+        /**
+         * CryptoObject is being created in the background.
+         */
+        PREPARING,
+
+        /**
+         * Biometric prompt is shown to the user.
+         */
+        PROMPTING,
+
+        /**
+         * User is authenticated and the value is being ciphered.
+         */
+        CIPHERING,
+
+        /**
+         * Operation is finished, either with the result or canceled.
+         * New operation can be started.
+         */
+        DONE
+    }
 }
@@ -0,0 +1,78 @@
+package co.infinum.goldfinger;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Receives timings of the operation phases. Register it with
+ * {@link Goldfinger.Builder#eventListener(GoldfingerEventListener)} and override only
+ * the events you need, every method does nothing by default.
+ * <p>
+ * Timestamps are taken with {@link System#nanoTime()}, they are monotonic and can only be
+ * compared with each other. Events are invoked synchronously on the thread where the phase
+ * runs, so implementation must be fast and thread-safe.
+ */
+@SuppressWarnings("unused")
+public abstract class GoldfingerEventListener {
+
+    /**
+     * Authenticate, encrypt or decrypt is called.
+     */
+    public void onRequestStarted(long timestampNanos) {
+    }
+
+    /**
+     * Hardware, enrollment and parameters are checked.
+     *
+     * @param valid false if the request is rejected before it is started.
+     */
+    public void onPreconditionsChecked(long startNanos, long endNanos, boolean valid) {
+    }
+
+    /**
+     * CryptoObject creation finished on the background thread, including prepared ones.
+     */
+    public void onCryptoObjectCreated(@NonNull String key, long startNanos, long endNanos, boolean success) {
+    }
+
+    /**
+     * Key is loaded from the keystore. Reported only by the default cipher factory.
+     */
+    public void onKeyLoaded(@NonNull String key, long startNanos, long endNanos) {
+    }
+
+    /**
+     * New Key is generated. Reported only by the default cipher factory.
+     */
+    public void onKeyGenerated(@NonNull String key, long startNanos, long endNanos) {
+    }
+
+    /**
+     * Cipher is initialized with the Key. Reported only by the default cipher factory.
+     */
+    public void onCipherInitialized(@NonNull String key, long startNanos, long endNanos) {
+    }
+
+    /**
+     * BiometricPrompt is requested to show.
+     */
+    public void onPromptShown(long timestampNanos) {
+    }
+
+    /**
+     * BiometricPrompt reported authentication error, failed attempt or success.
+     */
+    public void onAuthenticationEvent(@NonNull Goldfinger.Type type, @NonNull Goldfinger.Reason reason, long timestampNanos) {
+    }
+
+    /**
+     * Value is ciphered with unlocked CryptoObject.
+     */
+    public void onCipherFinished(long startNanos, long endNanos, boolean success) {
+    }
+
+    /**
+     * Final result is delivered to the callback, errors are reported as {@link Goldfinger.Type#ERROR}.
+     */
+    public void onResultDelivered(@NonNull Goldfinger.Type type, long timestampNanos) {
+    }
+}
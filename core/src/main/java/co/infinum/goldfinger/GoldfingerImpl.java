@@ -5,9 +5,11 @@ import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
 
+import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -16,6 +18,8 @@ import androidx.biometric.BiometricManager;
 import androidx.biometric.BiometricPrompt;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
+import androidx.tracing.Trace;
+import co.infinum.goldfinger.GoldfingerLogger.Event;
 
 import static co.infinum.goldfinger.LogUtils.log;
 
@@ -27,50 +31,93 @@ import static co.infinum.goldfinger.LogUtils.log;
 class GoldfingerImpl implements Goldfinger {
 
     private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+    private static final String TRACE_SHOW_PROMPT = "Goldfinger:showPrompt";
 
     @NonNull private final AsyncCryptoObjectFactory asyncCryptoFactory;
-    @Nullable private AsyncCryptoObjectFactory.Callback asyncCryptoFactoryCallback;
-    @Nullable private BiometricPrompt biometricPrompt;
     @NonNull private final CrypterProxy cryptoProxy;
-    @NonNull private final BiometricManager biometricManager;
-    @NonNull private final Executor executor = Executors.newSingleThreadExecutor();
-    @Nullable private BiometricCallback biometricCallback;
-    private boolean creatingCryptoObject = false;
+    @NonNull private final RequestScheduler scheduler;
+    @NonNull private final BiometricStatusCache statusCache;
+    @NonNull private final Executor executor;
+    @NonNull private final Executor callbackExecutor;
+    @Nullable private final AuthSession session;
+    @Nullable private final GoldfingerEventListener eventListener;
+    @NonNull private final StatsRecorder stats;
 
     GoldfingerImpl(
         @NonNull Context context,
         @NonNull AsyncCryptoObjectFactory asyncCryptoFactory,
         @NonNull CrypterProxy cryptoProxy
     ) {
-        this.biometricManager = BiometricManager.from(context);
+        this(context, asyncCryptoFactory, cryptoProxy, null, ExecutorUtils.promptExecutor(), ExecutorUtils.mainThreadExecutor(), null, new StatsRecorder());
+    }
+
+    /**
+     * @param session          if set, cipher operations run without the prompt while the session is active.
+     * @param executor         executor for BiometricPrompt callbacks, they are still delivered one at a time.
+     * @param callbackExecutor executor on which the results are delivered.
+     * @param eventListener    if set, phases of every operation are reported to it.
+     * @param stats            shared with the other components, snapshot is returned by {@link #stats()}.
+     */
+    GoldfingerImpl(
+        @NonNull Context context,
+        @NonNull AsyncCryptoObjectFactory asyncCryptoFactory,
+        @NonNull CrypterProxy cryptoProxy,
+        @Nullable AuthSession session,
+        @NonNull Executor executor,
+        @NonNull Executor callbackExecutor,
+        @Nullable GoldfingerEventListener eventListener,
+        @NonNull StatsRecorder stats
+    ) {
+        this.statusCache = BiometricStatusCache.getInstance(context);
         this.asyncCryptoFactory = asyncCryptoFactory;
         this.cryptoProxy = cryptoProxy;
+        this.session = session;
+        this.executor = ExecutorUtils.serial(executor);
+        this.callbackExecutor = callbackExecutor;
+        this.eventListener = eventListener;
+        this.stats = stats;
+        this.scheduler = new RequestScheduler(ExecutorUtils.mainThreadExecutor(), callbackExecutor, stats);
     }
 
     /**
      * @see Goldfinger#authenticate
      */
+    @NonNull
     @Override
-    public void authenticate(
-        @NonNull PromptParams params,
+    public Operation authenticate(
+        @NonNull final PromptParams params,
         @NonNull Callback callback
     ) {
-        if (preconditionsInvalid(params, Mode.AUTHENTICATION, null, null, callback)) {
-            return;
+        if (preconditionsInvalid(params, Mode.AUTHENTICATION, Collections.<String>emptyList(), callback)) {
+            return OperationState.finished();
         }
 
-        log("Starting authentication");
-        startNativeBiometricAuthentication(params, Mode.AUTHENTICATION, null, null, callback, null);
+        return scheduler.submit(params, Mode.AUTHENTICATION, callback, new RequestScheduler.Task() {
+            @Override
+            public void start(@NonNull OperationState operation, @NonNull Callback callback) {
+                startNativeBiometricAuthentication(
+                    operation,
+                    params,
+                    Mode.AUTHENTICATION,
+                    null,
+                    null,
+                    null,
+                    completingCallback(operation, callback),
+                    null,
+                    null
+                );
+            }
+        });
     }
 
     @Override
     public boolean canAuthenticate() {
-        return biometricManager.canAuthenticate() == BiometricManager.BIOMETRIC_SUCCESS;
+        return status(BiometricManager.Authenticators.BIOMETRIC_WEAK).canAuthenticate();
     }
 
     @Override
     public boolean canAuthenticate(int authenticators) {
-        return biometricManager.canAuthenticate(authenticators) == BiometricManager.BIOMETRIC_SUCCESS;
+        return status(authenticators).canAuthenticate();
     }
 
     /**
@@ -78,118 +125,336 @@ class GoldfingerImpl implements Goldfinger {
      */
     @Override
     public void cancel() {
-        if (biometricPrompt != null) {
-            biometricPrompt.cancelAuthentication();
-            biometricPrompt = null;
+        scheduler.cancelAll();
+    }
+
+    @NonNull
+    @Override
+    public Operation decrypt(@NonNull PromptParams params, @NonNull String key, @NonNull String value, @NonNull Callback callback) {
+        if (preconditionsInvalid(params, Mode.DECRYPTION, ValidateUtils.validateCipherParams(Mode.DECRYPTION, key, value), callback)) {
+            return OperationState.finished();
         }
 
-        if (biometricCallback != null) {
-            biometricCallback.cancel();
-            biometricCallback = null;
+        return scheduleCipher(params, Mode.DECRYPTION, key, value, null, callback);
+    }
+
+    @NonNull
+    @Override
+    public Operation encrypt(@NonNull PromptParams params, @NonNull String key, @NonNull String value, @NonNull Callback callback) {
+        if (preconditionsInvalid(params, Mode.ENCRYPTION, ValidateUtils.validateCipherParams(Mode.ENCRYPTION, key, value), callback)) {
+            return OperationState.finished();
         }
 
-        if (asyncCryptoFactoryCallback != null) {
-            asyncCryptoFactoryCallback.cancel();
-            asyncCryptoFactoryCallback = null;
+        return scheduleCipher(params, Mode.ENCRYPTION, key, value, null, callback);
+    }
+
+    @NonNull
+    @Override
+    public Operation decryptValues(
+        @NonNull PromptParams params,
+        @NonNull String key,
+        @NonNull String value,
+        @NonNull Callback callback
+    ) {
+        return decrypt(params, key, value, new ValuesCallback(callback));
+    }
+
+    @NonNull
+    @Override
+    public Operation decrypt(@NonNull PromptParams params, @NonNull String key, @NonNull byte[] value, @NonNull Callback callback) {
+        return cipherBytes(params, Mode.DECRYPTION, key, ByteValue.of(value), callback);
+    }
+
+    @NonNull
+    @Override
+    public Operation decrypt(
+        @NonNull PromptParams params,
+        @NonNull String key,
+        @NonNull ByteBuffer input,
+        @NonNull ByteBuffer output,
+        @NonNull Callback callback
+    ) {
+        return cipherBytes(params, Mode.DECRYPTION, key, ByteValue.of(input, output), callback);
+    }
+
+    @NonNull
+    @Override
+    public Operation decryptStream(@NonNull PromptParams params, @NonNull String key, @NonNull StreamCallback callback) {
+        if (preconditionsInvalid(params, Mode.DECRYPTION, ValidateUtils.validateStreamParams(key), callback)) {
+            return OperationState.finished();
         }
+
+        return scheduleCipher(params, Mode.DECRYPTION, key, null, null, callback);
     }
 
+    @NonNull
     @Override
-    public void decrypt(@NonNull PromptParams params, @NonNull String key, @NonNull String value, @NonNull Callback callback) {
-        if (preconditionsInvalid(params, Mode.DECRYPTION, key, value, callback)) {
-            return;
+    public Operation encrypt(@NonNull PromptParams params, @NonNull String key, @NonNull byte[] value, @NonNull Callback callback) {
+        return cipherBytes(params, Mode.ENCRYPTION, key, ByteValue.of(value), callback);
+    }
+
+    @NonNull
+    @Override
+    public Operation encrypt(
+        @NonNull PromptParams params,
+        @NonNull String key,
+        @NonNull ByteBuffer input,
+        @NonNull ByteBuffer output,
+        @NonNull Callback callback
+    ) {
+        return cipherBytes(params, Mode.ENCRYPTION, key, ByteValue.of(input, output), callback);
+    }
+
+    @NonNull
+    @Override
+    public Operation encryptStream(@NonNull PromptParams params, @NonNull String key, @NonNull StreamCallback callback) {
+        if (preconditionsInvalid(params, Mode.ENCRYPTION, ValidateUtils.validateStreamParams(key), callback)) {
+            return OperationState.finished();
         }
 
-        initializeCryptoObject(params, Mode.DECRYPTION, key, value, callback);
+        return scheduleCipher(params, Mode.ENCRYPTION, key, null, null, callback);
     }
 
+    /**
+     * @see Goldfinger#endSession
+     */
     @Override
-    public void encrypt(@NonNull PromptParams params, @NonNull String key, @NonNull String value, @NonNull Callback callback) {
-        if (preconditionsInvalid(params, Mode.ENCRYPTION, key, value, callback)) {
-            return;
+    public void endSession() {
+        if (session != null) {
+            log(Event.SESSION_ENDING);
+            session.end();
         }
+    }
 
-        initializeCryptoObject(params, Mode.ENCRYPTION, key, value, callback);
+    @NonNull
+    @Override
+    public Operation encryptValues(
+        @NonNull PromptParams params,
+        @NonNull String key,
+        @NonNull Map<String, String> values,
+        @NonNull Callback callback
+    ) {
+        List<String> valuesErrors = ValidateUtils.validateValues(values);
+        if (!valuesErrors.isEmpty()) {
+            callback.onError(new InvalidParametersException(valuesErrors));
+            return OperationState.finished();
+        }
+
+        return encrypt(params, key, MapUtils.pack(values), callback);
     }
 
     @Override
     public boolean hasEnrolledFingerprint() {
-        int authenticationStatus = biometricManager.canAuthenticate();
-        return authenticationStatus != BiometricManager.BIOMETRIC_ERROR_NONE_ENROLLED
-            && authenticationStatus != BiometricManager.BIOMETRIC_STATUS_UNKNOWN;
+        return status(BiometricManager.Authenticators.BIOMETRIC_WEAK).hasEnrolled();
     }
 
     @Override
     public boolean hasEnrolledFingerprint(int authenticators) {
-        int authenticationStatus = biometricManager.canAuthenticate(authenticators);
-        return authenticationStatus != BiometricManager.BIOMETRIC_ERROR_NONE_ENROLLED
-            && authenticationStatus != BiometricManager.BIOMETRIC_STATUS_UNKNOWN;
+        return status(authenticators).hasEnrolled();
     }
 
     @Override
     public boolean hasEnrolledBiometrics(int authenticators) {
-        int authenticationStatus = biometricManager.canAuthenticate(authenticators);
-        return authenticationStatus != BiometricManager.BIOMETRIC_ERROR_NONE_ENROLLED
-            && authenticationStatus != BiometricManager.BIOMETRIC_STATUS_UNKNOWN;
+        return status(authenticators).hasEnrolled();
     }
 
     @Override
     public boolean hasFingerprintHardware() {
-        int authenticationStatus = biometricManager.canAuthenticate();
-        return authenticationStatus != BiometricManager.BIOMETRIC_ERROR_NO_HARDWARE
-            && authenticationStatus != BiometricManager.BIOMETRIC_STATUS_UNKNOWN;
+        return status(BiometricManager.Authenticators.BIOMETRIC_WEAK).hasHardware();
     }
 
     @Override
     public boolean hasFingerprintHardware(int authenticators) {
-        int authenticationStatus = biometricManager.canAuthenticate(authenticators);
-        return authenticationStatus != BiometricManager.BIOMETRIC_ERROR_NO_HARDWARE
-            && authenticationStatus != BiometricManager.BIOMETRIC_STATUS_UNKNOWN;
+        return status(authenticators).hasHardware();
     }
 
     @Override
     public boolean hasBiometricHardware(int authenticators) {
-        int authenticationStatus = biometricManager.canAuthenticate(authenticators);
-        return authenticationStatus != BiometricManager.BIOMETRIC_ERROR_NO_HARDWARE
-            && authenticationStatus != BiometricManager.BIOMETRIC_STATUS_UNKNOWN;
+        return status(authenticators).hasHardware();
+    }
+
+    /**
+     * @see Goldfinger#status
+     */
+    @NonNull
+    @Override
+    public BiometricStatus status(int authenticators) {
+        return statusCache.get(authenticators);
+    }
+
+    /**
+     * @see Goldfinger#state
+     */
+    @NonNull
+    @Override
+    public State state() {
+        return scheduler.state();
+    }
+
+    /**
+     * @see Goldfinger#stats
+     */
+    @NonNull
+    @Override
+    public GoldfingerStats stats() {
+        return stats.snapshot();
+    }
+
+    /**
+     * @see Goldfinger#sessionRemainingMillis
+     */
+    @Override
+    public long sessionRemainingMillis() {
+        return session != null ? session.remainingMillis() : 0;
+    }
+
+    /**
+     * @see Goldfinger#prepareDecryption
+     */
+    @Override
+    public void prepareDecryption(@NonNull String key, @NonNull String value) {
+        if (!ValidateUtils.validateCipherParams(Mode.DECRYPTION, key, value).isEmpty()) {
+            log(Event.PREPARE_PARAMS_INVALID);
+            return;
+        }
+
+        asyncCryptoFactory.prepareCryptoObject(Mode.DECRYPTION, key, value);
+    }
+
+    /**
+     * @see Goldfinger#prepareEncryption
+     */
+    @Override
+    public void prepareEncryption(@NonNull String key) {
+        if (StringUtils.isBlankOrNull(key)) {
+            log(Event.PREPARE_PARAMS_INVALID);
+            return;
+        }
+
+        asyncCryptoFactory.prepareCryptoObject(Mode.ENCRYPTION, key, null);
+    }
+
+    @NonNull
+    private Operation cipherBytes(
+        @NonNull PromptParams params,
+        @NonNull Mode mode,
+        @NonNull String key,
+        @NonNull ByteValue byteValue,
+        @NonNull Callback callback
+    ) {
+        if (preconditionsInvalid(params, mode, ValidateUtils.validateByteParams(key, byteValue), callback)) {
+            return OperationState.finished();
+        }
+
+        return scheduleCipher(params, mode, key, null, byteValue, callback);
     }
 
     private void initializeCryptoObject(
+        @NonNull final OperationState operation,
         @NonNull final PromptParams params,
         @NonNull final Mode mode,
         @NonNull final String key,
-        @NonNull final String value,
+        @Nullable final String value,
+        @Nullable final ByteValue byteValue,
         @NonNull final Callback callback
     ) {
-        log("Creating CryptoObject");
-        asyncCryptoFactoryCallback = new AsyncCryptoObjectFactory.Callback() {
+        if (session != null) {
+            if (session.isActive()) {
+                cipherInSession(operation, params, mode, key, value, byteValue, callback, true);
+            } else if (operation.transition(State.PREPARING, State.PROMPTING)) {
+                startSession(operation, params, mode, key, value, byteValue, callback);
+            }
+            return;
+        }
+
+        log(Event.CRYPTO_OBJECT_CREATING);
+        AsyncCryptoObjectFactory.Callback cryptoObjectCallback = new AsyncCryptoObjectFactory.Callback() {
             @Override
             void onCryptoObjectCreated(@Nullable BiometricPrompt.CryptoObject cryptoObject) {
-                creatingCryptoObject = false;
                 if (cryptoObject != null) {
-                    startNativeBiometricAuthentication(params, mode, key, value, callback, cryptoObject);
-                } else {
-                    log("Failed to create CryptoObject");
-                    callback.onError(new CryptoObjectInitException());
+                    if (operation.transition(State.PREPARING, State.PROMPTING)) {
+                        startNativeBiometricAuthentication(
+                            operation,
+                            params,
+                            mode,
+                            key,
+                            value,
+                            byteValue,
+                            completingCallback(operation, callback),
+                            streamCallback(callback),
+                            cryptoObject
+                        );
+                    }
+                } else if (operation.finish()) {
+                    /* Key may be invalidated by biometric enrollment change */
+                    log(Event.CRYPTO_OBJECT_FAILED);
+                    statusCache.invalidate();
+                    deliverError(callback, new CryptoObjectInitException());
                 }
             }
+
+            @Override
+            void onCryptoObjectTimeout(long elapsedMillis) {
+                failOnTimeout(operation, callback, elapsedMillis);
+            }
         };
-        creatingCryptoObject = true;
-        asyncCryptoFactory.createCryptoObject(mode, key, asyncCryptoFactoryCallback);
+        operation.setCryptoObjectCallback(cryptoObjectCallback);
+        asyncCryptoFactory.createCryptoObject(mode, key, value, cryptoObjectCallback);
     }
 
-    private boolean preconditionsInvalid(PromptParams params, Mode mode, String key, String value, Callback callback) {
-        if ((biometricCallback != null && biometricCallback.isAuthenticationActive) || creatingCryptoObject) {
-            log("Authentication is already active. Ignoring authenticate call.");
-            return true;
+    /**
+     * Queue cipher operation, CryptoObject is created once the operation becomes active.
+     */
+    @NonNull
+    private Operation scheduleCipher(
+        @NonNull final PromptParams params,
+        @NonNull final Mode mode,
+        @NonNull final String key,
+        @Nullable final String value,
+        @Nullable final ByteValue byteValue,
+        @NonNull Callback callback
+    ) {
+        return scheduler.submit(params, mode, callback, new RequestScheduler.Task() {
+            @Override
+            public void start(@NonNull OperationState operation, @NonNull Callback callback) {
+                initializeCryptoObject(operation, params, mode, key, value, byteValue, callback);
+            }
+        });
+    }
+
+    private boolean preconditionsInvalid(
+        @NonNull PromptParams params,
+        @NonNull Mode mode,
+        @NonNull List<String> cipherErrors,
+        @NonNull Callback callback
+    ) {
+        if (eventListener == null) {
+            return checkPreconditions(params, mode, cipherErrors, callback);
         }
 
-        if (!hasFingerprintHardware(params.allowedAuthenticators())) {
+        long startNanos = System.nanoTime();
+        eventListener.onRequestStarted(startNanos);
+        boolean invalid = checkPreconditions(params, mode, cipherErrors, callback);
+        eventListener.onPreconditionsChecked(startNanos, System.nanoTime(), !invalid);
+        return invalid;
+    }
+
+    /**
+     * @return true and deliver the error if the request can not be started.
+     */
+    private boolean checkPreconditions(
+        @NonNull PromptParams params,
+        @NonNull Mode mode,
+        @NonNull List<String> cipherErrors,
+        @NonNull Callback callback
+    ) {
+        BiometricStatus status = status(params.allowedAuthenticators());
+        if (!status.hasHardware()) {
             callback.onError(new MissingHardwareException());
             return true;
         }
 
-        if (!hasEnrolledFingerprint(params.allowedAuthenticators())) {
+        if (!status.hasEnrolled()) {
             callback.onError(new NoEnrolledBiometricsException());
             return true;
         }
@@ -200,71 +465,275 @@ class GoldfingerImpl implements Goldfinger {
             return true;
         }
 
-        List<String> cipherErrors = ValidateUtils.validateCipherParams(mode, key, value);
         if (!cipherErrors.isEmpty()) {
             callback.onError(new InvalidParametersException(cipherErrors));
             return true;
         }
 
+        if (session != null && mode != Mode.AUTHENTICATION) {
+            List<String> sessionErrors = ValidateUtils.validateSessionParams(params);
+            if (!sessionErrors.isEmpty()) {
+                callback.onError(new InvalidParametersException(sessionErrors));
+                return true;
+            }
+        }
+
         return false;
     }
 
+    /**
+     * Create CryptoObject with Key unlocked by active session and cipher the value without the prompt.
+     *
+     * @param promptIfLocked if Key is not unlocked after all, start new session instead of failing.
+     */
     @SuppressWarnings("ConstantConditions")
-    private void startNativeBiometricAuthentication(
+    private void cipherInSession(
+        @NonNull final OperationState operation,
         @NonNull final PromptParams params,
         @NonNull final Mode mode,
-        @Nullable final String key,
+        @NonNull final String key,
         @Nullable final String value,
+        @Nullable final ByteValue byteValue,
         @NonNull final Callback callback,
-        @Nullable final BiometricPrompt.CryptoObject cryptoObject
+        final boolean promptIfLocked
     ) {
-        /*
-         * Use proxy callback because some devices do not cancel authentication when error is received.
-         * Cancel authentication manually and proxy the result to real callback.
-         */
-        this.biometricCallback = new BiometricCallback(cryptoProxy, mode, value, new Callback() {
+        log(Event.CRYPTO_OBJECT_CREATING_IN_SESSION, session.remainingMillis());
+        AsyncCryptoObjectFactory.Callback cryptoObjectCallback = new AsyncCryptoObjectFactory.Callback() {
+            @Override
+            void onCryptoObjectCreated(@Nullable BiometricPrompt.CryptoObject cryptoObject) {
+                if (cryptoObject != null) {
+                    if (operation.transition(State.PREPARING, State.CIPHERING)) {
+                        new BiometricCallback(
+                            operation,
+                            cryptoProxy,
+                            mode,
+                            value,
+                            byteValue,
+                            completingCallback(operation, callback),
+                            streamCallback(callback),
+                            callbackExecutor,
+                            eventListener,
+                            stats
+                        ).onCryptoObjectUnlocked(cryptoObject);
+                    }
+                } else if (promptIfLocked) {
+                    if (operation.transition(State.PREPARING, State.PROMPTING)) {
+                        log(Event.SESSION_KEY_LOCKED);
+                        session.end();
+                        startSession(operation, params, mode, key, value, byteValue, callback);
+                    }
+                } else if (operation.finish()) {
+                    log(Event.CRYPTO_OBJECT_FAILED);
+                    deliverError(callback, new CryptoObjectInitException());
+                }
+            }
+
+            @Override
+            void onCryptoObjectTimeout(long elapsedMillis) {
+                failOnTimeout(operation, callback, elapsedMillis);
+            }
+        };
+        operation.setCryptoObjectCallback(cryptoObjectCallback);
+        asyncCryptoFactory.createCryptoObject(mode, key, value, cryptoObjectCallback);
+    }
+
+    /**
+     * Authenticate without CryptoObject, Keys with authentication validity duration are unlocked
+     * by the authentication itself. Value is ciphered once the session starts.
+     */
+    @SuppressWarnings("ConstantConditions")
+    private void startSession(
+        @NonNull final OperationState operation,
+        @NonNull final PromptParams params,
+        @NonNull final Mode mode,
+        @NonNull final String key,
+        @Nullable final String value,
+        @Nullable final ByteValue byteValue,
+        @NonNull final Callback callback
+    ) {
+        log(Event.SESSION_STARTING);
+        final Callback completingCallback = completingCallback(operation, callback);
+        startNativeBiometricAuthentication(operation, params, Mode.AUTHENTICATION, key, value, null, new Callback() {
             @Override
             public void onError(@NonNull Exception e) {
-                cancel();
-                callback.onError(e);
+                completingCallback.onError(e);
             }
 
             @Override
             public void onResult(@NonNull Result result) {
-                if (result.type() == Type.ERROR || result.type() == Type.SUCCESS) {
-                    cancel();
+                if (result.type() != Type.SUCCESS) {
+                    completingCallback.onResult(result);
+                } else if (operation.transition(State.PROMPTING, State.PREPARING)) {
+                    operation.dismissPrompt();
+                    session.start();
+                    cipherInSession(operation, params, mode, key, value, byteValue, callback, false);
+                }
+            }
+        }, null, null);
+    }
+
+    /**
+     * Proxy callback which finishes the operation once the final result is received.
+     * Results that arrive after the operation is finished or canceled are dropped.
+     */
+    @NonNull
+    Callback completingCallback(@NonNull final OperationState operation, @NonNull final Callback callback) {
+        return new Callback() {
+            @Override
+            public void onError(@NonNull Exception e) {
+                if (operation.finish()) {
+                    callback.onError(e);
+                    reportResultDelivered(Type.ERROR);
+                }
+            }
+
+            @Override
+            public void onResult(@NonNull Result result) {
+                if (result.type() == Type.INFO) {
+                    if (!operation.isDone()) {
+                        stats.recordResult(result);
+                        callback.onResult(result);
+                    }
+                    return;
                 }
+
+                /* Some devices do not cancel authentication when error is received, finish cancels it manually */
+                if (!operation.finish()) {
+                    return;
+                }
+
+                if (result.type() == Type.ERROR) {
+                    /* Errors such as lockout or missing biometrics change the status */
+                    statusCache.invalidate();
+                }
+                stats.recordResult(result);
                 callback.onResult(result);
+                reportResultDelivered(result.type());
             }
-        });
+        };
+    }
 
-        if (params.dialogOwner() instanceof FragmentActivity) {
-            this.biometricPrompt = new BiometricPrompt((FragmentActivity) params.dialogOwner(), executor, biometricCallback);
-        }
-        if (params.dialogOwner() instanceof Fragment) {
-            this.biometricPrompt = new BiometricPrompt((Fragment) params.dialogOwner(), executor, biometricCallback);
-        }
+    private void startNativeBiometricAuthentication(
+        @NonNull final OperationState operation,
+        @NonNull final PromptParams params,
+        @NonNull final Mode mode,
+        @Nullable final String key,
+        @Nullable final String value,
+        @Nullable final ByteValue byteValue,
+        @NonNull final Callback callback,
+        @Nullable final StreamCallback streamCallback,
+        @Nullable final BiometricPrompt.CryptoObject cryptoObject
+    ) {
+        final BiometricCallback biometricCallback =
+            new BiometricCallback(operation, cryptoProxy, mode, value, byteValue, callback, streamCallback, callbackExecutor, eventListener, stats);
 
-        /* Delay with post because Navigation and Prompt both work with Fragment transactions */
+        /*
+         * Delay with post because Navigation and Prompt both work with Fragment transactions.
+         * Prompt is created on the main thread as well, CryptoObject is created in the background.
+         */
         MAIN_HANDLER.post(new Runnable() {
             @Override
             public void run() {
-                if (GoldfingerImpl.this.biometricPrompt == null) {
+                if (operation.state() != State.PROMPTING) {
                     return;
                 }
 
-                if (mode == Mode.AUTHENTICATION) {
-                    /* Simple Authentication call */
-                    log("Starting authentication");
-                    callback.onResult(new Result(Type.INFO, Reason.AUTHENTICATION_START));
-                    GoldfingerImpl.this.biometricPrompt.authenticate(params.buildPromptInfo());
-                } else {
-                    /* Encryption/Decryption call with initialized CryptoObject */
-                    log("Starting authentication [keyName=%s; value=%s]", key, value);
-                    callback.onResult(new Result(Type.INFO, Reason.AUTHENTICATION_START));
-                    GoldfingerImpl.this.biometricPrompt.authenticate(params.buildPromptInfo(), cryptoObject);
+                Trace.beginSection(TRACE_SHOW_PROMPT);
+                try {
+                    showPrompt(operation, params, mode, key, value, callback, cryptoObject, biometricCallback);
+                } finally {
+                    Trace.endSection();
                 }
             }
         });
     }
+
+    /**
+     * Create and show the prompt on the main thread.
+     */
+    private void showPrompt(
+        @NonNull OperationState operation,
+        @NonNull PromptParams params,
+        @NonNull Mode mode,
+        @Nullable String key,
+        @Nullable String value,
+        @NonNull Callback callback,
+        @Nullable BiometricPrompt.CryptoObject cryptoObject,
+        @NonNull BiometricCallback biometricCallback
+    ) {
+        BiometricPrompt biometricPrompt = createBiometricPrompt(params.dialogOwner(), biometricCallback);
+        if (!operation.setBiometricPrompt(biometricPrompt)) {
+            /* Canceled in the meantime */
+            return;
+        }
+
+        deliverResult(callback, new Result(Type.INFO, Reason.AUTHENTICATION_START));
+        if (mode == Mode.AUTHENTICATION) {
+            /* Simple Authentication call */
+            log(Event.AUTHENTICATION_STARTING);
+            biometricPrompt.authenticate(params.promptInfo());
+        } else {
+            /* Encryption/Decryption call with initialized CryptoObject */
+            log(Event.AUTHENTICATION_STARTING_WITH_CRYPTO_OBJECT, key, value);
+            biometricPrompt.authenticate(params.promptInfo(), cryptoObject);
+        }
+        long promptShownAtNanos = System.nanoTime();
+        operation.setPromptShownAtNanos(promptShownAtNanos);
+        stats.recordTimeToPrompt(promptShownAtNanos - operation.createdAtNanos());
+        if (eventListener != null) {
+            eventListener.onPromptShown(promptShownAtNanos);
+        }
+    }
+
+    @NonNull
+    private BiometricPrompt createBiometricPrompt(@NonNull Object dialogOwner, @NonNull BiometricCallback biometricCallback) {
+        if (dialogOwner instanceof Fragment) {
+            return new BiometricPrompt((Fragment) dialogOwner, executor, biometricCallback);
+        }
+        return new BiometricPrompt((FragmentActivity) dialogOwner, executor, biometricCallback);
+    }
+
+    /**
+     * Keystore did not respond in time, fail instead of waiting so the app can fall back.
+     */
+    private void failOnTimeout(@NonNull OperationState operation, @NonNull Callback callback, long elapsedMillis) {
+        if (operation.finish()) {
+            log(Event.CRYPTO_OBJECT_TIMEOUT, elapsedMillis);
+            deliverError(callback, new CryptoObjectTimeoutException(elapsedMillis));
+        }
+    }
+
+    private void reportResultDelivered(@NonNull Type type) {
+        if (eventListener != null) {
+            eventListener.onResultDelivered(type, System.nanoTime());
+        }
+    }
+
+    private void deliverError(@NonNull final Callback callback, @NonNull final Exception e) {
+        callbackExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                callback.onError(e);
+                reportResultDelivered(Type.ERROR);
+            }
+        });
+    }
+
+    /**
+     * Deliver result on the callback executor. Given callback is the completing one,
+     * it records the result for the stats.
+     */
+    void deliverResult(@NonNull final Callback callback, @NonNull final Result result) {
+        callbackExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                callback.onResult(result);
+            }
+        });
+    }
+
+    @Nullable
+    private static StreamCallback streamCallback(@NonNull Callback callback) {
+        return callback instanceof StreamCallback ? (StreamCallback) callback : null;
+    }
 }
@@ -0,0 +1,75 @@
+package co.infinum.goldfinger;
+
+import java.util.Locale;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Receives internal log events. Set it with {@link Goldfinger.Builder#logger(GoldfingerLogger)}.
+ * <p>
+ * Events are structured, arguments are passed as they are and the message is formatted only
+ * when {@link Event#format} is called, so the logger decides if and where the formatting cost is paid.
+ * Nothing is captured while no logger is set.
+ */
+public interface GoldfingerLogger {
+
+    /**
+     * Invoked synchronously on the thread where the event happens.
+     *
+     * @param arg1 first argument of the event message, null if the event has none.
+     * @param arg2 second argument of the event message, null if the event has none.
+     */
+    void log(@NonNull Event event, @Nullable Object arg1, @Nullable Object arg2);
+
+    enum Event {
+        REQUEST_COALESCED("Identical authentication is already requested, sharing the prompt"),
+        REQUEST_QUEUED("Operation is active, queueing [priority=%s]"),
+        REQUEST_PREEMPTED("Preempting operation [priority=%s]"),
+        STATUS_INVALIDATED("Invalidating biometric status"),
+        PREPARE_PARAMS_INVALID("Invalid cipher params. Ignoring prepare call."),
+        CRYPTO_OBJECT_PREPARING("Preparing CryptoObject [keyName=%s]"),
+        CRYPTO_OBJECT_ALREADY_PREPARED("CryptoObject is already prepared [keyName=%s]"),
+        CRYPTO_OBJECT_PREPARED_USED("Using prepared CryptoObject [keyName=%s]"),
+        CRYPTO_OBJECT_CREATING("Creating CryptoObject"),
+        CRYPTO_OBJECT_CREATING_IN_SESSION("Creating CryptoObject in session [remaining=%dms]"),
+        CRYPTO_OBJECT_FAILED("Failed to create CryptoObject"),
+        CRYPTO_OBJECT_TIMEOUT("CryptoObject creation timed out [elapsed=%dms]"),
+        CIRCUIT_OPEN_CREATION_SKIPPED("Key keeps failing, skipping CryptoObject creation [keyName=%s]"),
+        CIRCUIT_OPEN_PREPARATION_SKIPPED("Key keeps failing, skipping CryptoObject preparation [keyName=%s]"),
+        CIRCUIT_PROBING("Probing Key that keeps failing [keyName=%s]"),
+        SESSION_STARTING("Starting authentication session"),
+        SESSION_ENDING("Ending authentication session"),
+        SESSION_KEY_LOCKED("Key is locked, starting new session"),
+        AUTHENTICATION_STARTING("Starting authentication"),
+        AUTHENTICATION_STARTING_WITH_CRYPTO_OBJECT("Starting authentication [keyName=%s; value=%s]"),
+        AUTHENTICATION_ERROR("onAuthenticationError [%s]"),
+        AUTHENTICATION_FAILED("onAuthenticationFailed [%s]"),
+        AUTHENTICATION_SUCCEEDED("onAuthenticationSucceeded"),
+        CIPHERED_VALUE("Ciphered [%s] => [%s]"),
+        CIPHERED_BYTES("Ciphered binary value"),
+        CIPHER_STREAM_READY("Cipher stream ready");
+
+        @NonNull private final String message;
+
+        Event(@NonNull String message) {
+            this.message = message;
+        }
+
+        /**
+         * Return message template in {@link String#format} syntax.
+         */
+        @NonNull
+        public String message() {
+            return message;
+        }
+
+        /**
+         * Return human-readable message with given arguments.
+         */
+        @NonNull
+        public String format(@Nullable Object arg1, @Nullable Object arg2) {
+            return String.format(Locale.US, message, arg1, arg2);
+        }
+    }
+}
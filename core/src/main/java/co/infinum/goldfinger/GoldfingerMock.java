@@ -1,14 +1,20 @@
 package co.infinum.goldfinger;
 
+import java.nio.ByteBuffer;
+import java.util.Map;
+
 import androidx.annotation.NonNull;
+import androidx.biometric.BiometricManager;
 
 /**
  * Legacy implementation for pre-Marshmallow devices.
  */
 class GoldfingerMock implements Goldfinger {
 
+    @NonNull
     @Override
-    public void authenticate(@NonNull PromptParams params, @NonNull Callback callback) {
+    public Operation authenticate(@NonNull PromptParams params, @NonNull Callback callback) {
+        return OperationState.finished();
     }
 
     @Override
@@ -25,12 +31,108 @@ class GoldfingerMock implements Goldfinger {
     public void cancel() {
     }
 
+    @NonNull
+    @Override
+    public BiometricStatus status(int authenticators) {
+        return new BiometricStatus(authenticators, BiometricManager.BIOMETRIC_ERROR_NO_HARDWARE);
+    }
+
+    @Override
+    public void endSession() {
+    }
+
+    @Override
+    public long sessionRemainingMillis() {
+        return 0;
+    }
+
+    @NonNull
+    @Override
+    public State state() {
+        return State.IDLE;
+    }
+
+    @NonNull
+    @Override
+    public GoldfingerStats stats() {
+        return GoldfingerStats.empty();
+    }
+
+    @NonNull
+    @Override
+    public Operation decrypt(@NonNull PromptParams params, @NonNull String key, @NonNull String value, @NonNull Callback callback) {
+        return OperationState.finished();
+    }
+
+    @NonNull
+    @Override
+    public Operation encrypt(@NonNull PromptParams params, @NonNull String key, @NonNull String value, @NonNull Callback callback) {
+        return OperationState.finished();
+    }
+
+    @NonNull
+    @Override
+    public Operation decrypt(@NonNull PromptParams params, @NonNull String key, @NonNull byte[] value, @NonNull Callback callback) {
+        return OperationState.finished();
+    }
+
+    @NonNull
+    @Override
+    public Operation decrypt(
+        @NonNull PromptParams params,
+        @NonNull String key,
+        @NonNull ByteBuffer input,
+        @NonNull ByteBuffer output,
+        @NonNull Callback callback
+    ) {
+        return OperationState.finished();
+    }
+
+    @NonNull
+    @Override
+    public Operation encrypt(@NonNull PromptParams params, @NonNull String key, @NonNull byte[] value, @NonNull Callback callback) {
+        return OperationState.finished();
+    }
+
+    @NonNull
+    @Override
+    public Operation encrypt(
+        @NonNull PromptParams params,
+        @NonNull String key,
+        @NonNull ByteBuffer input,
+        @NonNull ByteBuffer output,
+        @NonNull Callback callback
+    ) {
+        return OperationState.finished();
+    }
+
+    @NonNull
     @Override
-    public void decrypt(@NonNull PromptParams params, @NonNull String key, @NonNull String value, @NonNull Callback callback) {
+    public Operation decryptStream(@NonNull PromptParams params, @NonNull String key, @NonNull StreamCallback callback) {
+        return OperationState.finished();
     }
 
+    @NonNull
     @Override
-    public void encrypt(@NonNull PromptParams params, @NonNull String key, @NonNull String value, @NonNull Callback callback) {
+    public Operation encryptStream(@NonNull PromptParams params, @NonNull String key, @NonNull StreamCallback callback) {
+        return OperationState.finished();
+    }
+
+    @NonNull
+    @Override
+    public Operation decryptValues(@NonNull PromptParams params, @NonNull String key, @NonNull String value, @NonNull Callback callback) {
+        return OperationState.finished();
+    }
+
+    @NonNull
+    @Override
+    public Operation encryptValues(
+        @NonNull PromptParams params,
+        @NonNull String key,
+        @NonNull Map<String, String> values,
+        @NonNull Callback callback
+    ) {
+        return OperationState.finished();
     }
 
     @Override
@@ -62,4 +164,12 @@ class GoldfingerMock implements Goldfinger {
     public boolean hasBiometricHardware(int authenticators) {
         return false;
     }
+
+    @Override
+    public void prepareDecryption(@NonNull String key, @NonNull String value) {
+    }
+
+    @Override
+    public void prepareEncryption(@NonNull String key) {
+    }
 }
@@ -0,0 +1,161 @@
+package co.infinum.goldfinger;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Snapshot of counters and latency histograms collected since the Goldfinger instance
+ * is built. Snapshot does not change once it is taken, call {@link Goldfinger#stats()} again
+ * for fresh values.
+ */
+@SuppressWarnings("WeakerAccess")
+public class GoldfingerStats {
+
+    @NonNull private final long[] reasonCounts;
+    @NonNull private final long[] typeCounts;
+    @NonNull private final Latency cryptoObjectCreation;
+    @NonNull private final Latency timeToPrompt;
+    @NonNull private final Latency timeInDialog;
+    @NonNull private final Latency cipher;
+
+    GoldfingerStats(
+        @NonNull long[] reasonCounts,
+        @NonNull long[] typeCounts,
+        @NonNull Latency cryptoObjectCreation,
+        @NonNull Latency timeToPrompt,
+        @NonNull Latency timeInDialog,
+        @NonNull Latency cipher
+    ) {
+        this.reasonCounts = reasonCounts;
+        this.typeCounts = typeCounts;
+        this.cryptoObjectCreation = cryptoObjectCreation;
+        this.timeToPrompt = timeToPrompt;
+        this.timeInDialog = timeInDialog;
+        this.cipher = cipher;
+    }
+
+    /**
+     * Return empty snapshot, used where nothing is recorded.
+     */
+    @NonNull
+    static GoldfingerStats empty() {
+        return new StatsRecorder().snapshot();
+    }
+
+    /**
+     * Return number of results with given reason delivered to callbacks.
+     */
+    public long count(@NonNull Goldfinger.Reason reason) {
+        return reasonCounts[reason.ordinal()];
+    }
+
+    /**
+     * Return number of results with given type delivered to callbacks.
+     */
+    public long count(@NonNull Goldfinger.Type type) {
+        return typeCounts[type.ordinal()];
+    }
+
+    /**
+     * Time spent creating CryptoObject on the background thread.
+     */
+    @NonNull
+    public Latency cryptoObjectCreation() {
+        return cryptoObjectCreation;
+    }
+
+    /**
+     * Time from the authenticate, encrypt or decrypt call until the prompt is shown,
+     * including the time spent in the queue.
+     */
+    @NonNull
+    public Latency timeToPrompt() {
+        return timeToPrompt;
+    }
+
+    /**
+     * Time from the prompt is shown until the user authenticates or the prompt is dismissed with error.
+     */
+    @NonNull
+    public Latency timeInDialog() {
+        return timeInDialog;
+    }
+
+    /**
+     * Time spent ciphering the value with unlocked CryptoObject.
+     */
+    @NonNull
+    public Latency cipher() {
+        return cipher;
+    }
+
+    /**
+     * Latency distribution. Percentiles are upper bounds of the histogram buckets, which grow
+     * in powers of two from 1 microsecond, so they are accurate within a factor of two.
+     * Latencies above ~4.5 minutes fall into the last bucket, which has no upper bound,
+     * percentiles in it are reported as {@link Long#MAX_VALUE}.
+     */
+    public static class Latency {
+
+        @NonNull private final long[] buckets;
+        private final long count;
+
+        Latency(@NonNull long[] buckets) {
+            this.buckets = buckets;
+            long count = 0;
+            for (long bucket : buckets) {
+                count += bucket;
+            }
+            this.count = count;
+        }
+
+        /**
+         * Return number of recorded values.
+         */
+        public long count() {
+            return count;
+        }
+
+        public long p50Millis() {
+            return percentileMillis(50);
+        }
+
+        public long p90Millis() {
+            return percentileMillis(90);
+        }
+
+        public long p99Millis() {
+            return percentileMillis(99);
+        }
+
+        /**
+         * @param percentile value between 0 and 100.
+         * @return upper bound of the bucket which contains given percentile rounded up to milliseconds,
+         * 0 if nothing is recorded, {@link Long#MAX_VALUE} if it is above the largest bucket.
+         */
+        public long percentileMillis(double percentile) {
+            long micros = percentileMicros(percentile);
+            return micros != Long.MAX_VALUE ? (micros + 999) / 1_000 : Long.MAX_VALUE;
+        }
+
+        /**
+         * @param percentile value between 0 and 100.
+         * @return upper bound of the bucket which contains given percentile, 0 if nothing is recorded,
+         * {@link Long#MAX_VALUE} if it is above the largest bucket.
+         */
+        public long percentileMicros(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return LatencyHistogram.bucketBoundMicros(i);
+                }
+            }
+            return LatencyHistogram.bucketBoundMicros(buckets.length - 1);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package co.infinum.goldfinger;
+
+import android.os.SystemClock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Tracks consecutive keystore failures per Key, that is creations which time out or throw.
+ * Key state errors such as missing IV or locked Key are not counted. Once the Key fails
+ * repeatedly, the circuit opens and further creations fail instantly instead of paying
+ * keystore latency again.
+ * <p>
+ * When the circuit opens, {@link Prober}, if set, is asked to probe the Key in the background
+ * after the cool-down. Without it, or if a request comes first once the cool-down passes,
+ * the request is let through as the probe instead. Successful probe closes the circuit, failed one keeps it open for
+ * another cool-down and schedules the next probe.
+ */
+class KeystoreCircuitBreaker {
+
+    static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    static final long DEFAULT_COOL_DOWN_MS = 30_000;
+
+    @NonNull private final Map<String, Circuit> circuits = new HashMap<>();
+    private final int failureThreshold;
+    private final long coolDownMillis;
+    @Nullable private volatile Prober prober;
+
+    KeystoreCircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_COOL_DOWN_MS);
+    }
+
+    KeystoreCircuitBreaker(int failureThreshold, long coolDownMillis) {
+        this.failureThreshold = failureThreshold;
+        this.coolDownMillis = coolDownMillis;
+    }
+
+    /**
+     * @return true if creation for given Key may run, false if it should fail instantly.
+     */
+    synchronized boolean allow(@NonNull String key) {
+        Circuit circuit = circuits.get(key);
+        if (circuit == null || circuit.failures < failureThreshold) {
+            return true;
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        if (now < circuit.retryAt) {
+            return false;
+        }
+
+        /* Let this one through as the probe, others wait for its result or the next cool-down */
+        circuit.retryAt = now + coolDownMillis;
+        return true;
+    }
+
+    /**
+     * Set the component which probes Keys with open circuit in the background.
+     */
+    void setProber(@Nullable Prober prober) {
+        this.prober = prober;
+    }
+
+    synchronized void onSuccess(@NonNull String key) {
+        circuits.remove(key);
+    }
+
+    void onFailure(@NonNull String key) {
+        synchronized (this) {
+            Circuit circuit = circuits.get(key);
+            if (circuit == null) {
+                circuit = new Circuit();
+                circuits.put(key, circuit);
+            }
+
+            circuit.failures++;
+            if (circuit.failures < failureThreshold) {
+                return;
+            }
+            circuit.retryAt = SystemClock.elapsedRealtime() + coolDownMillis;
+        }
+
+        Prober prober = this.prober;
+        if (prober != null) {
+            prober.scheduleProbe(key, coolDownMillis);
+        }
+    }
+
+    interface Prober {
+
+        /**
+         * Probe given Key after the delay unless {@link #allow} refuses it at that point,
+         * which means that a request is already acting as the probe.
+         */
+        void scheduleProbe(@NonNull String key, long delayMillis);
+    }
+
+    private static class Circuit {
+
+        int failures;
+        long retryAt;
+    }
+}
@@ -0,0 +1,52 @@
+package co.infinum.goldfinger;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram with fixed power of two buckets in microseconds, from 1us up to ~4.5 minutes.
+ * Recording is a single atomic increment so it can be done on any thread on every operation.
+ */
+class LatencyHistogram {
+
+    /* Last bucket holds everything above the last bound and has no upper bound */
+    static final int BUCKET_COUNT = 30;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Latency is rounded up to whole microseconds so that the bucket bound stays an upper bound.
+     */
+    void record(long nanos) {
+        buckets.incrementAndGet(bucketIndex((nanos + 999) / 1_000));
+    }
+
+    /**
+     * Return copy of the bucket counts. Buckets are read one by one, so values recorded
+     * in the meantime may or may not be included.
+     */
+    long[] counts() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * Return upper bound in microseconds of the bucket with given index,
+     * {@link Long#MAX_VALUE} for the last bucket.
+     */
+    static long bucketBoundMicros(int index) {
+        return index < BUCKET_COUNT - 1 ? 1L << index : Long.MAX_VALUE;
+    }
+
+    /**
+     * Bucket i holds latencies in range (2^(i-1), 2^i] microseconds, the last one everything above.
+     */
+    static int bucketIndex(long micros) {
+        if (micros <= 1) {
+            return 0;
+        }
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros - 1));
+    }
+}
@@ -2,34 +2,63 @@ package co.infinum.goldfinger;
 
 import android.util.Log;
 
-import java.util.Locale;
-
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 /**
- * Logging utility functions. Logger can be turned on/off from {@link Goldfinger.Builder}.
+ * Logging utility functions. Logger can be set from {@link Goldfinger.Builder}.
+ * <p>
+ * Overloads with fixed arguments avoid varargs array and boxing, while no logger is set
+ * every call is a single field read.
  */
 class LogUtils {
 
     private static final String TAG = "Goldfinger";
-    private static boolean enabled = false;
+    @Nullable private static volatile GoldfingerLogger logger;
 
     private LogUtils() {
     }
 
-    static void log(@NonNull String message, Object... args) {
-        if (enabled) {
-            Log.i(TAG, String.format(Locale.US, message, args));
+    static void log(@NonNull GoldfingerLogger.Event event) {
+        GoldfingerLogger logger = LogUtils.logger;
+        if (logger != null) {
+            logger.log(event, null, null);
+        }
+    }
+
+    static void log(@NonNull GoldfingerLogger.Event event, @Nullable Object arg) {
+        GoldfingerLogger logger = LogUtils.logger;
+        if (logger != null) {
+            logger.log(event, arg, null);
         }
     }
 
-    static void log(@NonNull Throwable t) {
-        if (enabled) {
-            Log.e(TAG, t.toString());
+    static void log(@NonNull GoldfingerLogger.Event event, long arg) {
+        GoldfingerLogger logger = LogUtils.logger;
+        if (logger != null) {
+            logger.log(event, arg, null);
         }
     }
 
-    static void setEnabled(boolean enabled) {
-        LogUtils.enabled = enabled;
+    static void log(@NonNull GoldfingerLogger.Event event, @Nullable Object arg1, @Nullable Object arg2) {
+        GoldfingerLogger logger = LogUtils.logger;
+        if (logger != null) {
+            logger.log(event, arg1, arg2);
+        }
+    }
+
+    static void setLogger(@Nullable GoldfingerLogger logger) {
+        LogUtils.logger = logger;
+    }
+
+    /**
+     * Default logger enabled with {@link Goldfinger.Builder#logEnabled(boolean)}.
+     */
+    static class LogcatLogger implements GoldfingerLogger {
+
+        @Override
+        public void log(@NonNull Event event, @Nullable Object arg1, @Nullable Object arg2) {
+            Log.i(TAG, event.format(arg1, arg2));
+        }
     }
 }
@@ -0,0 +1,78 @@
+package co.infinum.goldfinger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Packs multiple values into single String so that they can be ciphered
+ * with one unlocked CryptoObject.
+ * <p>
+ * Every key and value is written as [length]:[content].
+ */
+class MapUtils {
+
+    private static final char SEPARATOR = ':';
+
+    private MapUtils() {
+    }
+
+    @NonNull
+    static String pack(@NonNull Map<String, String> values) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            append(builder, entry.getKey());
+            append(builder, entry.getValue());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Restore values packed with {@link #pack}.
+     *
+     * @return restored values or null if given String is not in valid format.
+     */
+    @Nullable
+    static Map<String, String> unpack(@NonNull String packed) {
+        List<String> parts = new ArrayList<>();
+        int position = 0;
+        while (position < packed.length()) {
+            int separatorIndex = packed.indexOf(SEPARATOR, position);
+            if (separatorIndex <= position) {
+                return null;
+            }
+
+            int length;
+            try {
+                length = Integer.parseInt(packed.substring(position, separatorIndex));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+
+            int start = separatorIndex + 1;
+            if (length < 0 || start + length > packed.length()) {
+                return null;
+            }
+            parts.add(packed.substring(start, start + length));
+            position = start + length;
+        }
+
+        if (parts.size() % 2 != 0) {
+            return null;
+        }
+
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < parts.size(); i += 2) {
+            values.put(parts.get(i), parts.get(i + 1));
+        }
+        return values;
+    }
+
+    private static void append(@NonNull StringBuilder builder, @NonNull String s) {
+        builder.append(s.length()).append(SEPARATOR).append(s);
+    }
+}
@@ -0,0 +1,211 @@
+package co.infinum.goldfinger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.biometric.BiometricPrompt;
+import androidx.tracing.Trace;
+
+/**
+ * State of single Goldfinger operation. All transitions are atomic so the operation can be
+ * advanced from background threads and canceled from any thread. Transitions themselves
+ * take no locks, but finishing notifies {@link FinishListener}, which for scheduled operations
+ * briefly takes the {@link RequestScheduler} monitor to pick the next request.
+ * <p>
+ * Every phase checks the state before it continues, so work that belongs to already
+ * finished or canceled operation is dropped.
+ * <p>
+ * Operation is traced as async slice from creation until it is done, linking the sections
+ * recorded on the background and the main thread.
+ */
+class OperationState implements Goldfinger.Operation {
+
+    /**
+     * Notified exactly once, by the thread which finished the operation.
+     */
+    interface FinishListener {
+
+        void onFinished(@NonNull OperationState operation);
+    }
+
+    private static final String TRACE_OPERATION = "Goldfinger:operation";
+    private static final AtomicInteger TRACE_COOKIES = new AtomicInteger();
+
+    @NonNull private final AtomicReference<Goldfinger.State> state;
+    @NonNull private final AtomicReference<BiometricPrompt> biometricPrompt = new AtomicReference<>();
+    @Nullable private final FinishListener finishListener;
+    @Nullable private volatile AsyncCryptoObjectFactory.Callback cryptoObjectCallback;
+    private final long createdAtNanos = System.nanoTime();
+    private volatile long promptShownAtNanos;
+    private final int traceCookie;
+
+    OperationState(@NonNull Goldfinger.State initialState) {
+        this(initialState, null);
+    }
+
+    OperationState(@NonNull Goldfinger.State initialState, @Nullable FinishListener finishListener) {
+        this.state = new AtomicReference<>(initialState);
+        this.finishListener = finishListener;
+        if (initialState != Goldfinger.State.DONE) {
+            this.traceCookie = TRACE_COOKIES.incrementAndGet();
+            Trace.beginAsyncSection(TRACE_OPERATION, traceCookie);
+        } else {
+            this.traceCookie = 0;
+        }
+    }
+
+    /**
+     * Return operation which is already done, handed out when the call is rejected.
+     */
+    @NonNull
+    static OperationState finished() {
+        return new OperationState(Goldfinger.State.DONE);
+    }
+
+    @NonNull
+    @Override
+    public Goldfinger.State state() {
+        return state.get();
+    }
+
+    @Override
+    public boolean isDone() {
+        return state.get() == Goldfinger.State.DONE;
+    }
+
+    /**
+     * Move to the next state only if the operation is still in the expected state.
+     *
+     * @return true if transition is done, false if the state is changed in the meantime.
+     */
+    boolean transition(@NonNull Goldfinger.State from, @NonNull Goldfinger.State to) {
+        return state.compareAndSet(from, to);
+    }
+
+    /**
+     * Move to {@link Goldfinger.State#DONE} from any state and dismiss the prompt, if any.
+     *
+     * @return true if the operation is finished by this call, false if it was already done.
+     */
+    boolean finish() {
+        if (state.getAndSet(Goldfinger.State.DONE) == Goldfinger.State.DONE) {
+            return false;
+        }
+
+        onFinished();
+        return true;
+    }
+
+    /**
+     * Finish the operation and release everything that is still running.
+     */
+    @Override
+    public void cancel() {
+        abort();
+    }
+
+    /**
+     * @return true if the operation is finished by this call, false if it was already done.
+     * @see #cancel()
+     */
+    boolean abort() {
+        if (!finish()) {
+            return false;
+        }
+
+        cancelCryptoObject();
+        return true;
+    }
+
+    /**
+     * Abort the operation only if the user is not authenticated yet, that is while it is
+     * queued, preparing or prompting. Ciphering operation already holds unlocked CryptoObject
+     * and may have saved new IV, so it is left to finish.
+     *
+     * @return true if the operation is aborted by this call.
+     */
+    boolean preempt() {
+        Goldfinger.State current = state.get();
+        while (current == Goldfinger.State.QUEUED || current == Goldfinger.State.PREPARING || current == Goldfinger.State.PROMPTING) {
+            if (state.compareAndSet(current, Goldfinger.State.DONE)) {
+                onFinished();
+                cancelCryptoObject();
+                return true;
+            }
+            current = state.get();
+        }
+        return false;
+    }
+
+    /**
+     * Cancel shown prompt, if any. Some devices do not dismiss the prompt on their own.
+     */
+    void dismissPrompt() {
+        final BiometricPrompt biometricPrompt = this.biometricPrompt.getAndSet(null);
+        if (biometricPrompt != null) {
+            ExecutorUtils.runOnMainThread(new Runnable() {
+                @Override
+                public void run() {
+                    biometricPrompt.cancelAuthentication();
+                }
+            });
+        }
+    }
+
+    /**
+     * @return false if the operation is finished in the meantime and the prompt is already dismissed.
+     */
+    boolean setBiometricPrompt(@NonNull BiometricPrompt biometricPrompt) {
+        this.biometricPrompt.set(biometricPrompt);
+        if (isDone()) {
+            dismissPrompt();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Return {@link System#nanoTime()} of the call which requested the operation.
+     */
+    long createdAtNanos() {
+        return createdAtNanos;
+    }
+
+    /**
+     * Return {@link System#nanoTime()} when the prompt is shown, 0 if the operation runs without the prompt.
+     */
+    long promptShownAtNanos() {
+        return promptShownAtNanos;
+    }
+
+    void setPromptShownAtNanos(long promptShownAtNanos) {
+        this.promptShownAtNanos = promptShownAtNanos;
+    }
+
+    void setCryptoObjectCallback(@NonNull AsyncCryptoObjectFactory.Callback cryptoObjectCallback) {
+        this.cryptoObjectCallback = cryptoObjectCallback;
+        if (isDone()) {
+            cryptoObjectCallback.cancel();
+        }
+    }
+
+    /**
+     * Invoked once by the call which moved the operation to {@link Goldfinger.State#DONE}.
+     */
+    private void onFinished() {
+        Trace.endAsyncSection(TRACE_OPERATION, traceCookie);
+        dismissPrompt();
+        if (finishListener != null) {
+            finishListener.onFinished(this);
+        }
+    }
+
+    private void cancelCryptoObject() {
+        AsyncCryptoObjectFactory.Callback cryptoObjectCallback = this.cryptoObjectCallback;
+        if (cryptoObjectCallback != null) {
+            cryptoObjectCallback.cancel();
+        }
+    }
+}
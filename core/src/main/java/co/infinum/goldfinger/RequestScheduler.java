@@ -0,0 +1,273 @@
+package co.infinum.goldfinger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import co.infinum.goldfinger.GoldfingerLogger.Event;
+
+import static co.infinum.goldfinger.LogUtils.log;
+
+/**
+ * Runs one operation at a time. Requests made while other operation is active are queued
+ * and started in {@link Goldfinger.Priority} order, request with higher priority cancels
+ * active operation with lower priority unless the user is already authenticated, in which case
+ * it starts right after that operation. Identical authenticate requests are coalesced into
+ * single prompt and the result is delivered to every caller.
+ * <p>
+ * Queue and active request are guarded by this object's monitor. It is held only while they
+ * are updated, operations are started, preempted and canceled outside of it.
+ */
+class RequestScheduler {
+
+    /**
+     * Starts the phases of the request once it becomes active.
+     */
+    interface Task {
+
+        void start(@NonNull OperationState operation, @NonNull Goldfinger.Callback callback);
+    }
+
+    private static final Comparator<Request> ORDER = new Comparator<Request>() {
+        @Override
+        public int compare(Request first, Request second) {
+            int priority = second.priority.compareTo(first.priority);
+            return priority != 0 ? priority : (first.sequence < second.sequence ? -1 : 1);
+        }
+    };
+
+    @NonNull private final PriorityQueue<Request> queue = new PriorityQueue<>(11, ORDER);
+    @NonNull private final Executor mainThreadExecutor;
+    @NonNull private final Executor callbackExecutor;
+    @NonNull private final StatsRecorder stats;
+    @Nullable private Request active;
+    private long sequence = 0;
+
+    private final OperationState.FinishListener finishListener = new OperationState.FinishListener() {
+        @Override
+        public void onFinished(@NonNull OperationState operation) {
+            RequestScheduler.this.onFinished(operation);
+        }
+    };
+
+    /**
+     * @param mainThreadExecutor next request is started on it, after the previous prompt is dismissed.
+     * @param callbackExecutor   executor on which {@link Goldfinger.Reason#PREEMPTED} result is delivered.
+     */
+    RequestScheduler(@NonNull Executor mainThreadExecutor, @NonNull Executor callbackExecutor) {
+        this(mainThreadExecutor, callbackExecutor, new StatsRecorder());
+    }
+
+    /**
+     * @param stats records {@link Goldfinger.Reason#PREEMPTED} results.
+     */
+    RequestScheduler(@NonNull Executor mainThreadExecutor, @NonNull Executor callbackExecutor, @NonNull StatsRecorder stats) {
+        this.mainThreadExecutor = mainThreadExecutor;
+        this.callbackExecutor = callbackExecutor;
+        this.stats = stats;
+    }
+
+    /**
+     * Start the request immediately if no other operation is active, otherwise queue it.
+     */
+    @NonNull
+    Goldfinger.Operation submit(
+        @NonNull Goldfinger.PromptParams params,
+        @NonNull Mode mode,
+        @NonNull Goldfinger.Callback callback,
+        @NonNull Task task
+    ) {
+        Request preemptable = null;
+        Request started = null;
+        Goldfinger.Operation handle;
+        synchronized (this) {
+            if (mode == Mode.AUTHENTICATION) {
+                Goldfinger.Operation joined = join(params, callback);
+                if (joined != null) {
+                    log(Event.REQUEST_COALESCED);
+                    return joined;
+                }
+            }
+
+            Request request = new Request(params, mode, callback, task, sequence++);
+            handle = request.fanOut != null ? request.fanOut.join(callback) : request.operation;
+            if (active == null) {
+                active = request;
+                started = request;
+            } else {
+                /* Higher priority puts the request in front of the queue, active one finishes first if it cannot be preempted */
+                queue.offer(request);
+                if (request.priority.compareTo(active.priority) > 0) {
+                    preemptable = active;
+                } else {
+                    log(Event.REQUEST_QUEUED, request.priority);
+                }
+            }
+        }
+
+        if (started != null) {
+            started.start();
+        } else if (preemptable != null) {
+            if (preemptable.preempt()) {
+                /* Finished operation starts the next one, posted so the new prompt is created after the preempted one is dismissed */
+                log(Event.REQUEST_PREEMPTED, preemptable.priority);
+            } else {
+                log(Event.REQUEST_QUEUED, params.priority());
+            }
+        }
+        return handle;
+    }
+
+    /**
+     * Return state of the active operation.
+     */
+    @NonNull
+    synchronized Goldfinger.State state() {
+        return active != null ? active.operation.state() : Goldfinger.State.IDLE;
+    }
+
+    /**
+     * Cancel active operation and every queued one.
+     */
+    void cancelAll() {
+        List<Request> requests;
+        synchronized (this) {
+            requests = new ArrayList<>(queue);
+            queue.clear();
+            if (active != null) {
+                requests.add(active);
+            }
+        }
+
+        for (Request request : requests) {
+            request.operation.cancel();
+        }
+    }
+
+    /**
+     * Find request with the same prompt which is not finished yet and add callback to it.
+     */
+    @Nullable
+    private Goldfinger.Operation join(@NonNull Goldfinger.PromptParams params, @NonNull Goldfinger.Callback callback) {
+        if (active != null && active.canJoin(params)) {
+            Goldfinger.Operation joined = active.fanOut.join(callback);
+            if (joined != null) {
+                return joined;
+            }
+        }
+
+        for (Request request : queue) {
+            if (request.canJoin(params)) {
+                Goldfinger.Operation joined = request.fanOut.join(callback);
+                if (joined != null) {
+                    return joined;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void onFinished(@NonNull OperationState operation) {
+        Request next;
+        synchronized (this) {
+            if (active == null || active.operation != operation) {
+                /* Queued or preempted request is finished, active one is not affected */
+                removeQueued(operation);
+                return;
+            }
+
+            next = queue.poll();
+            while (next != null && next.operation.isDone()) {
+                next = queue.poll();
+            }
+            active = next;
+        }
+
+        if (next != null) {
+            post(next);
+        }
+    }
+
+    private void removeQueued(@NonNull OperationState operation) {
+        Iterator<Request> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().operation == operation) {
+                iterator.remove();
+                return;
+            }
+        }
+    }
+
+    private void post(@NonNull final Request request) {
+        mainThreadExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                request.start();
+            }
+        });
+    }
+
+    private class Request {
+
+        @NonNull final OperationState operation;
+        @NonNull final Goldfinger.PromptParams params;
+        @NonNull final Goldfinger.Priority priority;
+        @NonNull final Mode mode;
+        @NonNull final Goldfinger.Callback callback;
+        @Nullable final FanOutCallback fanOut;
+        @NonNull final Task task;
+        final long sequence;
+
+        Request(
+            @NonNull Goldfinger.PromptParams params,
+            @NonNull Mode mode,
+            @NonNull Goldfinger.Callback callback,
+            @NonNull Task task,
+            long sequence
+        ) {
+            this.operation = new OperationState(Goldfinger.State.QUEUED, finishListener);
+            this.params = params;
+            this.priority = params.priority();
+            this.mode = mode;
+            this.fanOut = mode == Mode.AUTHENTICATION ? new FanOutCallback(operation) : null;
+            this.callback = fanOut != null ? fanOut : callback;
+            this.task = task;
+            this.sequence = sequence;
+        }
+
+        boolean canJoin(@NonNull Goldfinger.PromptParams params) {
+            return fanOut != null && !operation.isDone() && this.params.sameAs(params);
+        }
+
+        void start() {
+            Goldfinger.State initialState = mode == Mode.AUTHENTICATION ? Goldfinger.State.PROMPTING : Goldfinger.State.PREPARING;
+            if (operation.transition(Goldfinger.State.QUEUED, initialState)) {
+                task.start(operation, callback);
+            }
+        }
+
+        /**
+         * @return false if the user is already authenticated and the operation must finish on its own.
+         */
+        boolean preempt() {
+            if (!operation.preempt()) {
+                return false;
+            }
+
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Goldfinger.Result result = new Goldfinger.Result(Goldfinger.Type.ERROR, Goldfinger.Reason.PREEMPTED);
+                    stats.recordResult(result);
+                    callback.onResult(result);
+                }
+            });
+            return true;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package co.infinum.goldfinger;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Collects counters and latencies of one Goldfinger instance. Every method is lock-free
+ * and allocation-free so it can be called on every operation from any thread.
+ */
+class StatsRecorder {
+
+    @NonNull private final AtomicLongArray reasonCounts = new AtomicLongArray(Goldfinger.Reason.values().length);
+    @NonNull private final AtomicLongArray typeCounts = new AtomicLongArray(Goldfinger.Type.values().length);
+    @NonNull private final LatencyHistogram cryptoObjectCreation = new LatencyHistogram();
+    @NonNull private final LatencyHistogram timeToPrompt = new LatencyHistogram();
+    @NonNull private final LatencyHistogram timeInDialog = new LatencyHistogram();
+    @NonNull private final LatencyHistogram cipher = new LatencyHistogram();
+
+    void recordResult(@NonNull Goldfinger.Result result) {
+        reasonCounts.incrementAndGet(result.reason().ordinal());
+        typeCounts.incrementAndGet(result.type().ordinal());
+    }
+
+    void recordCryptoObjectCreation(long nanos) {
+        cryptoObjectCreation.record(nanos);
+    }
+
+    void recordTimeToPrompt(long nanos) {
+        timeToPrompt.record(nanos);
+    }
+
+    void recordTimeInDialog(long nanos) {
+        timeInDialog.record(nanos);
+    }
+
+    void recordCipher(long nanos) {
+        cipher.record(nanos);
+    }
+
+    @NonNull
+    GoldfingerStats snapshot() {
+        return new GoldfingerStats(
+            copy(reasonCounts),
+            copy(typeCounts),
+            new GoldfingerStats.Latency(cryptoObjectCreation.counts()),
+            new GoldfingerStats.Latency(timeToPrompt.counts()),
+            new GoldfingerStats.Latency(timeInDialog.counts()),
+            new GoldfingerStats.Latency(cipher.counts())
+        );
+    }
+
+    @NonNull
+    private static long[] copy(@NonNull AtomicLongArray array) {
+        long[] copy = new long[array.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = array.get(i);
+        }
+        return copy;
+    }
+}
@@ -11,6 +11,10 @@ class StringUtils {
         return s == null || s.trim().isEmpty();
     }
 
+    static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
     /**
      * Join list of strings into single string.
      */
@@ -1,10 +1,13 @@
 package co.infinum.goldfinger;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.biometric.BiometricManager;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
 
@@ -18,14 +21,14 @@ class ValidateUtils {
      */
     @NonNull
     static List<String> validateCipherParams(@NonNull Mode mode, @Nullable String key, @Nullable String value) {
-        List<String> errors = new ArrayList<>();
+        List<String> errors = Collections.emptyList();
 
         if (mode != Mode.AUTHENTICATION) {
             if (StringUtils.isBlankOrNull(key)) {
-                errors.add("Key is required if encryption or decryption is used!");
+                errors = addError(errors, "Key is required if encryption or decryption is used!");
             }
             if (StringUtils.isBlankOrNull(value)) {
-                errors.add("Value is required if encryption or decryption is used!");
+                errors = addError(errors, "Value is required if encryption or decryption is used!");
             }
         }
 
@@ -33,32 +36,126 @@ class ValidateUtils {
     }
 
     /**
-     * Return list of prompt params errors. If no errors detected, list will be empty.
+     * Return list of binary cipher params errors. If no errors detected, list will be empty.
      */
     @NonNull
-    static List<String> validatePromptParams(@NonNull Mode mode, @NonNull Goldfinger.PromptParams params) {
-        List<String> errors = new ArrayList<>();
+    static List<String> validateByteParams(@Nullable String key, @NonNull ByteValue value) {
+        List<String> errors = validateStreamParams(key);
+
+        boolean emptyBytes = value.bytes != null && value.bytes.length == 0;
+        boolean emptyInput = value.input != null && !value.input.hasRemaining();
+        if (emptyBytes || emptyInput) {
+            errors = addError(errors, "Value is required if encryption or decryption is used!");
+        }
+
+        if (value.output != null && value.output.isReadOnly()) {
+            errors = addError(errors, "Output buffer must be writable!");
+        }
+
+        return errors;
+    }
+
+    /**
+     * Return list of session params errors. If no errors detected, list will be empty.
+     */
+    @NonNull
+    static List<String> validateSessionParams(@NonNull Goldfinger.PromptParams params) {
+        List<String> errors = Collections.emptyList();
+
+        if ((params.allowedAuthenticators() & ~BiometricManager.Authenticators.BIOMETRIC_STRONG) != 0) {
+            errors = addError(errors, "Only BiometricManager.Authenticators.BIOMETRIC_STRONG can unlock Keys used in session.");
+        }
+
+        return errors;
+    }
+
+    /**
+     * Return list of stream params errors. If no errors detected, list will be empty.
+     */
+    @NonNull
+    static List<String> validateStreamParams(@Nullable String key) {
+        List<String> errors = Collections.emptyList();
+
+        if (StringUtils.isBlankOrNull(key)) {
+            errors = addError(errors, "Key is required if encryption or decryption is used!");
+        }
+
+        return errors;
+    }
+
+    /**
+     * Return list of values errors. If no errors detected, list will be empty.
+     */
+    @NonNull
+    static List<String> validateValues(@NonNull Map<String, String> values) {
+        List<String> errors = Collections.emptyList();
+
+        if (values.isEmpty()) {
+            errors = addError(errors, "At least one value is required!");
+        }
+
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                errors = addError(errors, "Values must not contain null keys or values!");
+                break;
+            }
+        }
+
+        return errors;
+    }
+
+    /**
+     * Return list of prompt params errors which do not depend on the operation.
+     * Used once when {@link Goldfinger.PromptParams} are built. If no errors detected, list will be empty.
+     */
+    @NonNull
+    static List<String> validatePromptParams(@NonNull Goldfinger.PromptParams params) {
+        List<String> errors = Collections.emptyList();
 
         if (!(params.dialogOwner() instanceof Fragment) && !(params.dialogOwner() instanceof FragmentActivity)) {
-            errors.add("DialogOwner must be of instance Fragment or FragmentActivity");
+            errors = addError(errors, "DialogOwner must be of instance Fragment or FragmentActivity");
         }
 
         if (StringUtils.isBlankOrNull(params.title())) {
-            errors.add("Title is required!");
+            errors = addError(errors, "Title is required!");
         }
 
         if (params.deviceCredentialsAllowed() && !StringUtils.isBlankOrNull(params.negativeButtonText())) {
-            errors.add("It is not possible to set NegativeButtonText while using BiometricManager.Authenticators.DEVICE_CREDENTIAL");
+            errors = addError(
+                errors,
+                "It is not possible to set NegativeButtonText while using BiometricManager.Authenticators.DEVICE_CREDENTIAL"
+            );
         }
 
         if (!params.deviceCredentialsAllowed() && StringUtils.isBlankOrNull(params.negativeButtonText())) {
-            errors.add("NegativeButtonText is required!");
+            errors = addError(errors, "NegativeButtonText is required!");
         }
 
+        return errors;
+    }
+
+    /**
+     * Return list of prompt params errors for given operation. Remaining params are validated
+     * when {@link Goldfinger.PromptParams} are built. If no errors detected, list will be empty.
+     */
+    @NonNull
+    static List<String> validatePromptParams(@NonNull Mode mode, @NonNull Goldfinger.PromptParams params) {
+        List<String> errors = Collections.emptyList();
+
         if (params.deviceCredentialsAllowed() && mode != Mode.AUTHENTICATION) {
-            errors.add("DeviceCredentials are allowed only for Goldfinger#authenticate method.");
+            errors = addError(errors, "DeviceCredentials are allowed only for Goldfinger#authenticate method.");
         }
 
         return errors;
     }
+
+    /**
+     * Valid params are validated on every operation, so the list is allocated only once the first error is found.
+     */
+    @NonNull
+    private static List<String> addError(@NonNull List<String> errors, @NonNull String error) {
+        List<String> mutableErrors = errors.isEmpty() ? new ArrayList<String>() : errors;
+        mutableErrors.add(error);
+        return mutableErrors;
+    }
 }
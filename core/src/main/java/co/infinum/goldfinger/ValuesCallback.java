@@ -0,0 +1,40 @@
+package co.infinum.goldfinger;
+
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Proxy callback used by {@link Goldfinger#decryptValues}. Unpacks decrypted
+ * String into values and forwards the result to the real callback.
+ */
+class ValuesCallback implements Goldfinger.Callback {
+
+    @NonNull private final Goldfinger.Callback callback;
+
+    ValuesCallback(@NonNull Goldfinger.Callback callback) {
+        this.callback = callback;
+    }
+
+    @Override
+    public void onError(@NonNull Exception e) {
+        callback.onError(e);
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Override
+    public void onResult(@NonNull Goldfinger.Result result) {
+        if (result.type() != Goldfinger.Type.SUCCESS) {
+            callback.onResult(result);
+            return;
+        }
+
+        Map<String, String> values = MapUtils.unpack(result.value());
+        if (values == null) {
+            callback.onError(new DecryptionException());
+            return;
+        }
+
+        callback.onResult(new Goldfinger.Result(result.type(), result.reason(), null, result.message(), values));
+    }
+}
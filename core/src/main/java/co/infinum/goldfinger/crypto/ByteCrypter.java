@@ -0,0 +1,56 @@
+package co.infinum.goldfinger.crypto;
+
+import java.nio.ByteBuffer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Binary counterpart of {@link Crypter}. Used internally when byte[] or {@link ByteBuffer}
+ * values are encrypted or decrypted, so binary secrets skip String encoding and decoding.
+ *
+ * @param <T> Object used to encrypt or decrypt data, one of:
+ *            {@link java.security.Signature}, {@link javax.crypto.Cipher} or {@link javax.crypto.Mac}
+ */
+interface ByteCrypter<T> {
+
+    /**
+     * Encrypt value with given crypter.
+     *
+     * @param crypter unlocked crypter that can be used to encrypt or sign the value.
+     * @param value   plain value that should be encrypted.
+     * @return encrypted value or null if encryption fails.
+     */
+    @Nullable
+    byte[] encrypt(@NonNull T crypter, @NonNull byte[] value);
+
+    /**
+     * Decrypt encrypted value with given crypter.
+     *
+     * @param crypter unlocked crypter that can be used to decrypt or validate the value.
+     * @param value   encrypted value that should be decrypted.
+     * @return decrypted value or null if decryption fails.
+     */
+    @Nullable
+    byte[] decrypt(@NonNull T crypter, @NonNull byte[] value);
+
+    /**
+     * Encrypt remaining bytes of input buffer into output buffer.
+     *
+     * @param crypter unlocked crypter that can be used to encrypt or sign the value.
+     * @param input   plain value that should be encrypted.
+     * @param output  buffer which receives encrypted value, direct buffers are supported.
+     * @return number of bytes written to output or -1 if encryption fails.
+     */
+    int encrypt(@NonNull T crypter, @NonNull ByteBuffer input, @NonNull ByteBuffer output);
+
+    /**
+     * Decrypt remaining bytes of input buffer into output buffer.
+     *
+     * @param crypter unlocked crypter that can be used to decrypt or validate the value.
+     * @param input   encrypted value that should be decrypted.
+     * @param output  buffer which receives decrypted value, direct buffers are supported.
+     * @return number of bytes written to output or -1 if decryption fails.
+     */
+    int decrypt(@NonNull T crypter, @NonNull ByteBuffer input, @NonNull ByteBuffer output);
+}
@@ -0,0 +1,10 @@
+package co.infinum.goldfinger.crypto;
+
+import javax.crypto.Cipher;
+
+/**
+ * @see ByteCrypter
+ * @see co.infinum.goldfinger.crypto.impl.RawCipherByteCrypter
+ */
+public interface CipherByteCrypter extends ByteCrypter<Cipher> {
+}
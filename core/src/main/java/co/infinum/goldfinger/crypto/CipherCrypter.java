@@ -5,6 +5,7 @@ import javax.crypto.Cipher;
 /**
  * @see Crypter
  * @see co.infinum.goldfinger.crypto.impl.Base64CipherCrypter
+ * @see co.infinum.goldfinger.crypto.impl.AesGcmCipherCrypter
  */
 public interface CipherCrypter extends Crypter<Cipher> {
 }
@@ -6,6 +6,7 @@ import javax.crypto.Cipher;
  * @see Factory
  * @see co.infinum.goldfinger.crypto.impl.AesCipherFactory
  * @see co.infinum.goldfinger.crypto.impl.UnlockedAesCipherFactory
+ * @see EmbeddedIvCipherFactory
  */
 public interface CipherFactory extends Factory<Cipher> {
 }
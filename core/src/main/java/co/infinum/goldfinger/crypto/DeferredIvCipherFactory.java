@@ -0,0 +1,33 @@
+package co.infinum.goldfinger.crypto;
+
+import javax.crypto.Cipher;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * {@link CipherFactory} which stores IV separately from the encrypted value and lets the caller
+ * decide when the IV is saved. Goldfinger uses it for CryptoObjects prepared in advance,
+ * which may expire or be discarded without ever encrypting anything. Saving their IV right away
+ * would replace the IV of the previously encrypted value.
+ *
+ * @see co.infinum.goldfinger.crypto.impl.AesCipherFactory
+ */
+public interface DeferredIvCipherFactory extends CipherFactory {
+
+    /**
+     * Create crypter which will be used when encrypting the value, without saving its IV.
+     *
+     * @param key used to store IV, Key, etc. so that it can be restored.
+     * @return created crypter or null if error happens.
+     */
+    @Nullable
+    Cipher createUnsavedEncryptionCrypter(@NonNull String key);
+
+    /**
+     * Save IV of the crypter created with {@link #createUnsavedEncryptionCrypter} once it is used.
+     *
+     * @param key same key the crypter is created with.
+     */
+    void saveIv(@NonNull String key, @NonNull Cipher cipher);
+}
@@ -0,0 +1,25 @@
+package co.infinum.goldfinger.crypto;
+
+import javax.crypto.Cipher;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * {@link CipherFactory} which keeps IV inside the encrypted value instead of storing it
+ * separately. Decryption crypter therefore needs the encrypted value to be created.
+ *
+ * @see co.infinum.goldfinger.crypto.impl.AesGcmCipherFactory
+ */
+public interface EmbeddedIvCipherFactory extends CipherFactory {
+
+    /**
+     * Create crypter which will be used when decrypting the value.
+     *
+     * @param key   used to restore Key.
+     * @param value encrypted value which contains IV.
+     * @return created crypter or null if error happens.
+     */
+    @Nullable
+    Cipher createDecryptionCrypter(@NonNull String key, @NonNull String value);
+}
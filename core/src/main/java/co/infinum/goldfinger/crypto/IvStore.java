@@ -0,0 +1,36 @@
+package co.infinum.goldfinger.crypto;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Persists IVs for {@link CipherFactory} implementations which do not embed IV
+ * inside the encrypted value. Implementations must be thread safe, they are
+ * called from Goldfinger background threads.
+ *
+ * @see co.infinum.goldfinger.crypto.impl.FileIvStore
+ * @see co.infinum.goldfinger.crypto.impl.AesCipherFactory
+ */
+public interface IvStore {
+
+    /**
+     * @param key name of the keystore.
+     * @return IV saved for given key or null if there is none.
+     */
+    @Nullable
+    byte[] load(@NonNull String key);
+
+    /**
+     * Save IV for given key, replacing the previous one.
+     *
+     * @param key name of the keystore.
+     */
+    void save(@NonNull String key, @NonNull byte[] iv);
+
+    /**
+     * Remove IV saved for given key.
+     *
+     * @param key name of the keystore.
+     */
+    void remove(@NonNull String key);
+}
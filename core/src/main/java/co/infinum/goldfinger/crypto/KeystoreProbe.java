@@ -0,0 +1,23 @@
+package co.infinum.goldfinger.crypto;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Factory which can check whether the keystore behind it responds, without creating a crypter.
+ * Goldfinger uses it to probe Keys that keep failing in the background. Factories which do not
+ * implement it are probed by the next request once the cool-down passes.
+ *
+ * @see co.infinum.goldfinger.crypto.impl.AesCipherFactory
+ * @see co.infinum.goldfinger.crypto.impl.AesGcmCipherFactory
+ */
+public interface KeystoreProbe {
+
+    /**
+     * Make a call to the keystore itself, cached state must not be used.
+     * Missing Key is not a failure, the keystore responded.
+     *
+     * @param key name of the keystore.
+     * @throws java.security.ProviderException if the keystore fails.
+     */
+    void probeKeystore(@NonNull String key);
+}
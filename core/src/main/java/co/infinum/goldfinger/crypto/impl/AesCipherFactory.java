@@ -1,31 +1,52 @@
 package co.infinum.goldfinger.crypto.impl;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.os.Build;
 import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyInfo;
+import android.security.keystore.KeyPermanentlyInvalidatedException;
 import android.security.keystore.KeyProperties;
-import android.util.Base64;
 
+import java.security.InvalidKeyException;
 import java.security.Key;
-import java.security.KeyStore;
+import java.security.UnrecoverableKeyException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.Cipher;
-import javax.crypto.KeyGenerator;
 import javax.crypto.spec.IvParameterSpec;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
-import co.infinum.goldfinger.crypto.CipherFactory;
+import androidx.tracing.Trace;
+import co.infinum.goldfinger.GoldfingerEventListener;
+import co.infinum.goldfinger.crypto.DeferredIvCipherFactory;
+import co.infinum.goldfinger.crypto.IvStore;
+import co.infinum.goldfinger.crypto.KeystoreProbe;
 
 /**
  * AES Cipher implementation. By default the given Cipher is created with
  * Key which requires user authentication.
  * This implementation is used by default if other Factory is not provided.
+ * <p>
+ * Key is generated on first encryption and reused afterwards, unless it is created with
+ * different authentication settings. Use {@link #rotateKey(String)} if a fresh Key is explicitly needed.
+ * <p>
+ * If authentication validity duration is given, Key stays unlocked for that many seconds
+ * after successful authentication instead of requiring authentication for every use.
+ * <p>
+ * IVs are kept in given {@link IvStore}, {@link FileIvStore} by default.
+ * <p>
+ * KeyStore and IV store are initialized on first use, constructing the factory
+ * on the main thread does not touch either of them.
+ * <p>
+ * Crypter is null if the Key or IV cannot be used. Failure of the keystore itself is thrown
+ * as {@link java.security.ProviderException}.
  */
 @RequiresApi(api = Build.VERSION_CODES.M)
-public class AesCipherFactory implements CipherFactory {
+public class AesCipherFactory implements DeferredIvCipherFactory, KeystoreProbe {
 
     private static final String CIPHER_TRANSFORMATION = String.format(
         "%s/%s/%s",
@@ -33,36 +54,77 @@ public class AesCipherFactory implements CipherFactory {
         KeyProperties.BLOCK_MODE_CBC,
         KeyProperties.ENCRYPTION_PADDING_PKCS7
     );
-    private static final String KEY_KEYSTORE = "AndroidKeyStore";
-    private static final String KEY_SHARED_PREFS = "<Goldfinger IV>";
-    private KeyGenerator keyGenerator;
-    private KeyStore keyStore;
-    private final SharedPreferences sharedPrefs;
+    private static final String TRACE_LOAD_KEY = "Goldfinger:loadKey";
+    private static final String TRACE_CREATE_KEY = "Goldfinger:createKey";
+    private static final String TRACE_CIPHER_INIT = "Goldfinger:Cipher.init";
+    private final KeyStoreManager keyStoreManager;
+    private final IvStore ivStore;
+    /* Keys whose authentication settings are already checked, KeyInfo lookup is a keystore call. */
+    private final Set<String> verifiedKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final int authValidityDurationSeconds;
+    @Nullable private final GoldfingerEventListener eventListener;
 
     public AesCipherFactory(@NonNull Context context) {
-        this.sharedPrefs = context.getSharedPreferences(KEY_SHARED_PREFS, Context.MODE_PRIVATE);
-        try {
-            keyStore = KeyStore.getInstance(KEY_KEYSTORE);
-            keyGenerator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, KEY_KEYSTORE);
-        } catch (Exception ignored) {
-            /* Gracefully handle exception later when create method is invoked. */
-        }
+        this(context, 0);
+    }
+
+    /**
+     * @param authValidityDurationSeconds how long the Key stays unlocked after authentication,
+     *                                    0 if authentication is required for every use.
+     *                                    Applies only to newly created Keys.
+     */
+    public AesCipherFactory(@NonNull Context context, int authValidityDurationSeconds) {
+        this(context, authValidityDurationSeconds, null);
+    }
+
+    /**
+     * @param eventListener if set, Key load, Key generation and Cipher initialization are timed.
+     */
+    public AesCipherFactory(@NonNull Context context, int authValidityDurationSeconds, @Nullable GoldfingerEventListener eventListener) {
+        this(FileIvStore.getInstance(context), authValidityDurationSeconds, eventListener);
+    }
+
+    /**
+     * @param ivStore keeps IVs of encrypted values, they are needed for decryption.
+     */
+    public AesCipherFactory(@NonNull IvStore ivStore, int authValidityDurationSeconds, @Nullable GoldfingerEventListener eventListener) {
+        this.ivStore = ivStore;
+        this.keyStoreManager = new KeyStoreManager();
+        this.authValidityDurationSeconds = authValidityDurationSeconds;
+        this.eventListener = eventListener;
     }
 
     @Nullable
     @Override
     public Cipher createDecryptionCrypter(String key) {
-        if (keyStore == null || keyGenerator == null) {
+        if (!keyStoreManager.isAvailable()) {
             return null;
         }
 
         try {
             Key secureKey = loadKey(key);
             Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
-            byte[] iv = loadIv(key);
-            cipher.init(Cipher.DECRYPT_MODE, secureKey, new IvParameterSpec(iv));
+            byte[] iv = ivStore.load(key);
+            if (iv == null) {
+                return null;
+            }
+            KeyStoreManager.throwIfCanceled();
+            long initStartNanos = startNanos();
+            Trace.beginSection(TRACE_CIPHER_INIT);
+            try {
+                cipher.init(Cipher.DECRYPT_MODE, secureKey, new IvParameterSpec(iv));
+            } finally {
+                Trace.endSection();
+            }
+            if (eventListener != null) {
+                eventListener.onCipherInitialized(key, initStartNanos, System.nanoTime());
+            }
             return cipher;
+        } catch (InvalidKeyException | UnrecoverableKeyException e) {
+            keyStoreManager.invalidate(key);
+            return null;
         } catch (Exception e) {
+            KeyStoreManager.rethrowKeystoreFailure(e);
             return null;
         }
     }
@@ -70,17 +132,76 @@ public class AesCipherFactory implements CipherFactory {
     @Nullable
     @Override
     public Cipher createEncryptionCrypter(@NonNull String key) {
-        if (keyStore == null || keyGenerator == null) {
+        return createEncryptionCrypter(key, true);
+    }
+
+    @Nullable
+    @Override
+    public Cipher createUnsavedEncryptionCrypter(@NonNull String key) {
+        return createEncryptionCrypter(key, false);
+    }
+
+    @Override
+    public void saveIv(@NonNull String key, @NonNull Cipher cipher) {
+        byte[] iv = cipher.getIV();
+        if (iv != null) {
+            ivStore.save(key, iv);
+        }
+    }
+
+    @Override
+    public void probeKeystore(@NonNull String key) {
+        keyStoreManager.probe(key);
+    }
+
+    /**
+     * Delete the Key and IV stored under given name. Next encryption generates a fresh Key.
+     * Values encrypted with the old Key can no longer be decrypted.
+     *
+     * @param key name of the keystore.
+     * @return true if the Key is deleted, false otherwise.
+     */
+    public boolean rotateKey(@NonNull String key) {
+        verifiedKeys.remove(key);
+        if (!keyStoreManager.deleteKey(key)) {
+            return false;
+        }
+
+        ivStore.remove(key);
+        return true;
+    }
+
+    @Nullable
+    private Cipher createEncryptionCrypter(@NonNull String key, boolean saveIv) {
+        if (!keyStoreManager.isAvailable()) {
             return null;
         }
 
         try {
-            Key secureKey = createKey(key);
             Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
-            cipher.init(Cipher.ENCRYPT_MODE, secureKey);
-            saveIv(key, cipher.getIV());
+            Key secureKey = loadOrCreateKey(key);
+            KeyStoreManager.throwIfCanceled();
+            long initStartNanos = startNanos();
+            try {
+                initEncryption(cipher, secureKey);
+            } catch (KeyPermanentlyInvalidatedException e) {
+                /* Values encrypted with invalidated Key are lost anyway, replace it with a fresh one. */
+                initEncryption(cipher, createKey(key));
+            }
+            if (eventListener != null) {
+                eventListener.onCipherInitialized(key, initStartNanos, System.nanoTime());
+            }
+            /* Canceled Cipher is never used, keep IV of the previously encrypted value */
+            KeyStoreManager.throwIfCanceled();
+            if (saveIv) {
+                saveIv(key, cipher);
+            }
             return cipher;
+        } catch (InvalidKeyException | UnrecoverableKeyException e) {
+            keyStoreManager.invalidate(key);
+            return null;
         } catch (Exception e) {
+            KeyStoreManager.rethrowKeystoreFailure(e);
             return null;
         }
     }
@@ -101,6 +222,7 @@ public class AesCipherFactory implements CipherFactory {
      * @throws Exception if anything fails, it is handled gracefully.
      */
     @Nullable
+    @SuppressWarnings("deprecation")
     private Key createKey(@NonNull String key) throws Exception {
         KeyGenParameterSpec.Builder keyGenParamsBuilder =
             new KeyGenParameterSpec.Builder(key, KeyProperties.PURPOSE_DECRYPT | KeyProperties.PURPOSE_ENCRYPT)
@@ -110,34 +232,96 @@ public class AesCipherFactory implements CipherFactory {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
             keyGenParamsBuilder.setInvalidatedByBiometricEnrollment(isUserAuthRequired());
         }
-        keyGenerator.init(keyGenParamsBuilder.build());
-        keyGenerator.generateKey();
-        return loadKey(key);
+        if (isUserAuthRequired() && authValidityDurationSeconds > 0) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+                keyGenParamsBuilder.setUserAuthenticationParameters(authValidityDurationSeconds, KeyProperties.AUTH_BIOMETRIC_STRONG);
+            } else {
+                keyGenParamsBuilder.setUserAuthenticationValidityDurationSeconds(authValidityDurationSeconds);
+            }
+        }
+        long startNanos = startNanos();
+        Key secureKey;
+        Trace.beginSection(TRACE_CREATE_KEY);
+        try {
+            secureKey = keyStoreManager.createKey(key, keyGenParamsBuilder.build());
+        } finally {
+            Trace.endSection();
+        }
+        if (eventListener != null) {
+            eventListener.onKeyGenerated(key, startNanos, System.nanoTime());
+        }
+        verifiedKeys.add(key);
+        return secureKey;
     }
 
     /**
-     * Load IV from Shared preferences. Decode from Base64.
+     * Load existing {@link Key} from KeyStore or create new one if it does not exist
+     * or is created with different authentication settings.
+     *
+     * @param key name of the keystore.
      */
-    @NonNull
-    private byte[] loadIv(@NonNull String key) {
-        return Base64.decode(sharedPrefs.getString(key, ""), Base64.DEFAULT);
+    @Nullable
+    private Key loadOrCreateKey(@NonNull String key) throws Exception {
+        Key secureKey = loadKey(key);
+        return secureKey != null && matchesAuthSettings(key, secureKey) ? secureKey : createKey(key);
     }
 
     /**
-     * Load {@link Key} from {@link KeyStore}.
-     *
-     * @param key name of the {@link Key} to load.
+     * Per-use Key passes Cipher.init but fails every ciphering without the prompt, while Key with
+     * validity duration fails Cipher.init unless the user authenticated recently. Key created before
+     * the session duration is changed therefore cannot be used and is replaced on next encryption.
+     * Values encrypted with it could not be decrypted in the current mode anyway.
      */
+    private boolean matchesAuthSettings(@NonNull String key, @NonNull Key secureKey) throws InterruptedException {
+        if (verifiedKeys.contains(key)) {
+            return true;
+        }
+
+        KeyInfo keyInfo;
+        try {
+            keyInfo = keyStoreManager.keyInfo(secureKey);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            /* Settings cannot be read, keep using the Key as before */
+            return true;
+        }
+        /* KeyInfo reports -1 for Key which requires authentication for every use */
+        int validityDurationSeconds = authValidityDurationSeconds > 0 ? authValidityDurationSeconds : -1;
+        boolean matches = keyInfo.isUserAuthenticationRequired() == isUserAuthRequired()
+            && (!isUserAuthRequired() || keyInfo.getUserAuthenticationValidityDurationSeconds() == validityDurationSeconds);
+        if (matches) {
+            verifiedKeys.add(key);
+        }
+        return matches;
+    }
+
     @Nullable
     private Key loadKey(@NonNull String key) throws Exception {
-        keyStore.load(null);
-        return keyStore.getKey(key, null);
+        long startNanos = startNanos();
+        Key secureKey;
+        Trace.beginSection(TRACE_LOAD_KEY);
+        try {
+            secureKey = keyStoreManager.loadKey(key);
+        } finally {
+            Trace.endSection();
+        }
+        if (eventListener != null) {
+            eventListener.onKeyLoaded(key, startNanos, System.nanoTime());
+        }
+        return secureKey;
     }
 
-    /**
-     * Save IV to Shared preferences. Before saving encode it to Base64.
-     */
-    private void saveIv(@NonNull String key, @Nullable byte[] iv) {
-        sharedPrefs.edit().putString(key, Base64.encodeToString(iv, Base64.DEFAULT)).apply();
+    private void initEncryption(@NonNull Cipher cipher, @Nullable Key secureKey) throws Exception {
+        Trace.beginSection(TRACE_CIPHER_INIT);
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, secureKey);
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private long startNanos() {
+        return eventListener != null ? System.nanoTime() : 0;
     }
 }
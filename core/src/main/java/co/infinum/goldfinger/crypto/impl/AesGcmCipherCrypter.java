@@ -0,0 +1,48 @@
+package co.infinum.goldfinger.crypto.impl;
+
+import android.os.Build;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.crypto.Cipher;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import co.infinum.goldfinger.crypto.CipherCrypter;
+
+/**
+ * Crypter paired with {@link AesGcmCipherFactory}. Encrypted value is Base64 encoded
+ * and carries versioned header and IV, see {@link AesGcmFormat}.
+ *
+ * @see CipherCrypter
+ */
+@RequiresApi(api = Build.VERSION_CODES.KITKAT)
+public class AesGcmCipherCrypter implements CipherCrypter {
+
+    @Nullable
+    @Override
+    public String decrypt(@NonNull Cipher cipher, @NonNull String value) {
+        try {
+            byte[] encoded = Base64Codec.decode(value);
+            int offset = AesGcmFormat.payloadOffset(encoded);
+            if (offset < 0) {
+                return null;
+            }
+            return new String(cipher.doFinal(encoded, offset, encoded.length - offset), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    @Override
+    public String encrypt(@NonNull Cipher cipher, @NonNull String value) {
+        try {
+            byte[] encryptedBytes = cipher.doFinal(value.getBytes(StandardCharsets.UTF_8));
+            return Base64Codec.encode(AesGcmFormat.wrap(cipher.getIV(), encryptedBytes));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package co.infinum.goldfinger.crypto.impl;
+
+import android.os.Build;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyPermanentlyInvalidatedException;
+import android.security.keystore.KeyProperties;
+
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.UnrecoverableKeyException;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import co.infinum.goldfinger.crypto.EmbeddedIvCipherFactory;
+import co.infinum.goldfinger.crypto.KeystoreProbe;
+
+/**
+ * AES-GCM Cipher implementation. IV is not stored by the factory, it is embedded
+ * in every encrypted value instead, so many values can be encrypted under one key
+ * and no additional I/O is done on encryption or decryption.
+ * <p>
+ * Must be used together with {@link AesGcmCipherCrypter}. Keys are not compatible with
+ * {@link AesCipherFactory} so use different key names for the two factories.
+ * <p>
+ * Crypter is null if the Key cannot be used. Failure of the keystore itself is thrown
+ * as {@link java.security.ProviderException}.
+ */
+@RequiresApi(api = Build.VERSION_CODES.M)
+public class AesGcmCipherFactory implements EmbeddedIvCipherFactory, KeystoreProbe {
+
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final String CIPHER_TRANSFORMATION = String.format(
+        "%s/%s/%s",
+        KeyProperties.KEY_ALGORITHM_AES,
+        KeyProperties.BLOCK_MODE_GCM,
+        KeyProperties.ENCRYPTION_PADDING_NONE
+    );
+    private final KeyStoreManager keyStoreManager;
+
+    public AesGcmCipherFactory() {
+        this.keyStoreManager = new KeyStoreManager();
+    }
+
+    /**
+     * IV is embedded in the encrypted value, use {@link #createDecryptionCrypter(String, String)} instead.
+     *
+     * @return always null.
+     */
+    @Nullable
+    @Override
+    public Cipher createDecryptionCrypter(String key) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public Cipher createDecryptionCrypter(@NonNull String key, @NonNull String value) {
+        if (!keyStoreManager.isAvailable()) {
+            return null;
+        }
+
+        try {
+            byte[] iv = AesGcmFormat.iv(Base64Codec.decode(value));
+            if (iv == null) {
+                return null;
+            }
+
+            Key secureKey = keyStoreManager.loadKey(key);
+            Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+            KeyStoreManager.throwIfCanceled();
+            cipher.init(Cipher.DECRYPT_MODE, secureKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            return cipher;
+        } catch (InvalidKeyException | UnrecoverableKeyException e) {
+            keyStoreManager.invalidate(key);
+            return null;
+        } catch (Exception e) {
+            KeyStoreManager.rethrowKeystoreFailure(e);
+            return null;
+        }
+    }
+
+    @Nullable
+    @Override
+    public Cipher createEncryptionCrypter(@NonNull String key) {
+        if (!keyStoreManager.isAvailable()) {
+            return null;
+        }
+
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+            Key secureKey = loadOrCreateKey(key);
+            KeyStoreManager.throwIfCanceled();
+            try {
+                cipher.init(Cipher.ENCRYPT_MODE, secureKey);
+            } catch (KeyPermanentlyInvalidatedException e) {
+                /* Values encrypted with invalidated Key are lost anyway, replace it with a fresh one. */
+                cipher.init(Cipher.ENCRYPT_MODE, createKey(key));
+            }
+            return cipher;
+        } catch (InvalidKeyException | UnrecoverableKeyException e) {
+            keyStoreManager.invalidate(key);
+            return null;
+        } catch (Exception e) {
+            KeyStoreManager.rethrowKeystoreFailure(e);
+            return null;
+        }
+    }
+
+    @Override
+    public void probeKeystore(@NonNull String key) {
+        keyStoreManager.probe(key);
+    }
+
+    /**
+     * Delete the Key stored under given name. Next encryption generates a fresh Key.
+     * Values encrypted with the old Key can no longer be decrypted.
+     *
+     * @param key name of the keystore.
+     * @return true if the Key is deleted, false otherwise.
+     */
+    public boolean rotateKey(@NonNull String key) {
+        return keyStoreManager.deleteKey(key);
+    }
+
+    /**
+     * @see AesCipherFactory#isUserAuthRequired()
+     */
+    protected boolean isUserAuthRequired() {
+        return true;
+    }
+
+    @Nullable
+    private Key createKey(@NonNull String key) throws Exception {
+        KeyGenParameterSpec.Builder keyGenParamsBuilder =
+            new KeyGenParameterSpec.Builder(key, KeyProperties.PURPOSE_DECRYPT | KeyProperties.PURPOSE_ENCRYPT)
+                .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                .setUserAuthenticationRequired(isUserAuthRequired());
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            keyGenParamsBuilder.setInvalidatedByBiometricEnrollment(isUserAuthRequired());
+        }
+        return keyStoreManager.createKey(key, keyGenParamsBuilder.build());
+    }
+
+    @Nullable
+    private Key loadOrCreateKey(@NonNull String key) throws Exception {
+        Key secureKey = keyStoreManager.loadKey(key);
+        return secureKey != null ? secureKey : createKey(key);
+    }
+}
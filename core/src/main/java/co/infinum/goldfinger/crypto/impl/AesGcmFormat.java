@@ -0,0 +1,63 @@
+package co.infinum.goldfinger.crypto.impl;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Self-describing format of values encrypted with {@link AesGcmCipherCrypter}.
+ * <p>
+ * Layout: [version (1 byte)][IV length (1 byte)][IV][ciphertext with GCM tag]
+ */
+class AesGcmFormat {
+
+    static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 2;
+
+    private AesGcmFormat() {
+    }
+
+    /**
+     * Return IV embedded in given value or null if the value is not in supported format.
+     */
+    @Nullable
+    static byte[] iv(@NonNull byte[] encoded) {
+        int offset = payloadOffset(encoded);
+        if (offset < 0) {
+            return null;
+        }
+
+        byte[] iv = new byte[offset - HEADER_SIZE];
+        System.arraycopy(encoded, HEADER_SIZE, iv, 0, iv.length);
+        return iv;
+    }
+
+    /**
+     * Return index at which ciphertext starts or -1 if the value is not in supported format.
+     */
+    static int payloadOffset(@NonNull byte[] encoded) {
+        if (encoded.length < HEADER_SIZE || encoded[0] != VERSION) {
+            return -1;
+        }
+
+        int ivLength = encoded[1] & 0xFF;
+        int offset = HEADER_SIZE + ivLength;
+        return ivLength > 0 && offset <= encoded.length ? offset : -1;
+    }
+
+    /**
+     * Prepend header and IV to given ciphertext.
+     */
+    @NonNull
+    static byte[] wrap(@NonNull byte[] iv, @NonNull byte[] ciphertext) {
+        if (iv.length == 0 || iv.length > 0xFF) {
+            throw new IllegalArgumentException("Unsupported IV length: " + iv.length);
+        }
+
+        byte[] encoded = new byte[HEADER_SIZE + iv.length + ciphertext.length];
+        encoded[0] = VERSION;
+        encoded[1] = (byte) iv.length;
+        System.arraycopy(iv, 0, encoded, HEADER_SIZE, iv.length);
+        System.arraycopy(ciphertext, 0, encoded, HEADER_SIZE + iv.length, ciphertext.length);
+        return encoded;
+    }
+}
@@ -1,7 +1,6 @@
 package co.infinum.goldfinger.crypto.impl;
 
 import android.os.Build;
-import android.util.Base64;
 
 import java.nio.charset.StandardCharsets;
 
@@ -25,7 +24,7 @@ public class Base64CipherCrypter implements CipherCrypter {
     @Override
     public String decrypt(@NonNull Cipher cipher, @NonNull String value) {
         try {
-            byte[] decodedBytes = Base64.decode(value, Base64.NO_WRAP);
+            byte[] decodedBytes = Base64Codec.decode(value);
             return new String(cipher.doFinal(decodedBytes));
         } catch (Exception e) {
             return null;
@@ -37,7 +36,7 @@ public class Base64CipherCrypter implements CipherCrypter {
     public String encrypt(@NonNull Cipher cipher, @NonNull String value) {
         try {
             byte[] encryptedBytes = cipher.doFinal(value.getBytes(StandardCharsets.UTF_8));
-            return Base64.encodeToString(encryptedBytes, Base64.NO_WRAP);
+            return Base64Codec.encode(encryptedBytes);
         } catch (Exception e) {
             return null;
         }
@@ -0,0 +1,160 @@
+package co.infinum.goldfinger.crypto.impl;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Pure Java Base64 codec (RFC 4648, standard alphabet) used by crypto implementations
+ * instead of {@link android.util.Base64}. Behaves the same on Android and on plain JVM.
+ * <p>
+ * Encoding never wraps lines. Decoding ignores whitespace and missing padding so values
+ * encoded with {@link android.util.Base64#DEFAULT} can still be decoded.
+ * Methods working with arrays write into given buffer so it can be reused.
+ */
+final class Base64Codec {
+
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final char PADDING = '=';
+    private static final int SKIP = -1;
+    private static final int INVALID = -2;
+    private static final int[] DECODE_TABLE = new int[128];
+
+    static {
+        for (int i = 0; i < DECODE_TABLE.length; i++) {
+            DECODE_TABLE[i] = INVALID;
+        }
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE_TABLE[ALPHABET[i]] = i;
+        }
+        DECODE_TABLE[' '] = SKIP;
+        DECODE_TABLE['\t'] = SKIP;
+        DECODE_TABLE['\n'] = SKIP;
+        DECODE_TABLE['\r'] = SKIP;
+    }
+
+    private Base64Codec() {
+    }
+
+    /**
+     * Return number of characters needed to encode given number of bytes.
+     */
+    static int encodedLength(int length) {
+        return (length + 2) / 3 * 4;
+    }
+
+    /**
+     * Return maximum number of bytes that given number of characters can be decoded to.
+     */
+    static int maxDecodedLength(int length) {
+        return (length + 3) / 4 * 3;
+    }
+
+    @NonNull
+    static String encode(@NonNull byte[] src) {
+        return encode(src, 0, src.length);
+    }
+
+    @NonNull
+    static String encode(@NonNull byte[] src, int offset, int length) {
+        char[] dst = new char[encodedLength(length)];
+        encode(src, offset, length, dst, 0);
+        return new String(dst);
+    }
+
+    /**
+     * Encode bytes into given buffer.
+     *
+     * @return number of characters written.
+     * @throws IndexOutOfBoundsException if buffer does not have {@link #encodedLength} characters available.
+     */
+    static int encode(@NonNull byte[] src, int offset, int length, @NonNull char[] dst, int dstOffset) {
+        if (dst.length - dstOffset < encodedLength(length)) {
+            throw new IndexOutOfBoundsException("Output buffer is too small.");
+        }
+
+        int end = offset + length;
+        int out = dstOffset;
+        int i = offset;
+        while (end - i >= 3) {
+            int chunk = (src[i++] & 0xFF) << 16 | (src[i++] & 0xFF) << 8 | (src[i++] & 0xFF);
+            dst[out++] = ALPHABET[chunk >>> 18];
+            dst[out++] = ALPHABET[chunk >>> 12 & 0x3F];
+            dst[out++] = ALPHABET[chunk >>> 6 & 0x3F];
+            dst[out++] = ALPHABET[chunk & 0x3F];
+        }
+
+        int remaining = end - i;
+        if (remaining > 0) {
+            int chunk = (src[i] & 0xFF) << 16 | (remaining == 2 ? (src[i + 1] & 0xFF) << 8 : 0);
+            dst[out++] = ALPHABET[chunk >>> 18];
+            dst[out++] = ALPHABET[chunk >>> 12 & 0x3F];
+            dst[out++] = remaining == 2 ? ALPHABET[chunk >>> 6 & 0x3F] : PADDING;
+            dst[out++] = PADDING;
+        }
+        return out - dstOffset;
+    }
+
+    /**
+     * @throws IllegalArgumentException if given value is not valid Base64.
+     */
+    @NonNull
+    static byte[] decode(@NonNull CharSequence src) {
+        byte[] buffer = new byte[maxDecodedLength(src.length())];
+        int length = decode(src, buffer, 0);
+        if (length == buffer.length) {
+            return buffer;
+        }
+
+        byte[] decoded = new byte[length];
+        System.arraycopy(buffer, 0, decoded, 0, length);
+        return decoded;
+    }
+
+    /**
+     * Decode value into given buffer.
+     *
+     * @return number of bytes written.
+     * @throws IllegalArgumentException  if given value is not valid Base64.
+     * @throws IndexOutOfBoundsException if buffer is too small, {@link #maxDecodedLength} is always enough.
+     */
+    static int decode(@NonNull CharSequence src, @NonNull byte[] dst, int dstOffset) {
+        int out = dstOffset;
+        int chunk = 0;
+        int chunkSize = 0;
+        int padding = 0;
+        for (int i = 0; i < src.length(); i++) {
+            char c = src.charAt(i);
+            int value = c < DECODE_TABLE.length ? DECODE_TABLE[c] : INVALID;
+            if (value == SKIP) {
+                continue;
+            }
+            if (c == PADDING) {
+                padding++;
+                continue;
+            }
+            if (value == INVALID || padding > 0) {
+                throw new IllegalArgumentException("Invalid Base64 character at index " + i);
+            }
+
+            chunk = chunk << 6 | value;
+            chunkSize++;
+            if (chunkSize == 4) {
+                dst[out++] = (byte) (chunk >>> 16);
+                dst[out++] = (byte) (chunk >>> 8);
+                dst[out++] = (byte) chunk;
+                chunk = 0;
+                chunkSize = 0;
+            }
+        }
+
+        if (chunkSize == 1 || padding > 2) {
+            throw new IllegalArgumentException("Invalid Base64 length");
+        }
+        if (chunkSize == 2) {
+            dst[out++] = (byte) (chunk >>> 4);
+        } else if (chunkSize == 3) {
+            dst[out++] = (byte) (chunk >>> 10);
+            dst[out++] = (byte) (chunk >>> 2);
+        }
+        return out - dstOffset;
+    }
+}
@@ -0,0 +1,464 @@
+package co.infinum.goldfinger.crypto.impl;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import co.infinum.goldfinger.crypto.IvStore;
+
+/**
+ * Default {@link IvStore} used by {@link AesCipherFactory}. IVs are indexed in memory and
+ * persisted to an append-only binary log, so saving an IV appends a single record
+ * instead of rewriting every saved IV.
+ * <p>
+ * Every record is {@code type | key length | key | IV length | IV | CRC32}. Record torn
+ * by a crash fails the checksum and is dropped together with everything after it.
+ * Records are written immediately and survive process death. First record after a quiet
+ * period is synced right away, records that follow it are synced together at most
+ * {@code 500ms} later, so a burst of saves costs one fsync.
+ * The log is compacted into a new file once it grows to twice the size of live records.
+ * <p>
+ * Every store keeps its own index and compaction replaces the whole file, so there is
+ * a single store per log in the process, see {@link #getInstance(Context)}.
+ * <p>
+ * The log is read on first use. IVs saved in SharedPreferences by previous versions
+ * are imported at that point.
+ */
+@RequiresApi(api = Build.VERSION_CODES.LOLLIPOP)
+public class FileIvStore implements IvStore {
+
+    private static final String FILE_NAME = "goldfinger_iv.log";
+    private static final String LEGACY_SHARED_PREFS = "<Goldfinger IV>";
+    private static final int MAGIC = 0x47464956;
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 5;
+    private static final byte TYPE_SAVE = 1;
+    private static final byte TYPE_REMOVE = 2;
+    private static final int MAX_LENGTH = 0xFFFF;
+    private static final int SYNC_BATCH_RECORDS = 16;
+    private static final long SYNC_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int COMPACTION_MIN_BYTES = 4096;
+    private static final byte[] EMPTY = new byte[0];
+    /* Stores by log path, the one in no-backup files directory is under the file name. */
+    private static final Map<String, FileIvStore> INSTANCES = new HashMap<>();
+    @Nullable private static ScheduledExecutorService syncExecutor;
+
+    @Nullable private final Context context;
+    @Nullable private File file;
+    private final Map<String, byte[]> index = new HashMap<>();
+    @Nullable private FileOutputStream output;
+    private boolean loaded;
+    /* Set when the file is missing, corrupted or failed to write, next write replaces it. */
+    private boolean rewriteNeeded;
+    private long fileBytes;
+    private long liveBytes;
+    private int unsyncedRecords;
+    private long lastSyncNanos;
+    private boolean syncScheduled;
+
+    private FileIvStore(@NonNull Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Open the log directly, every call reads it again. Used to simulate a new process.
+     */
+    FileIvStore(@NonNull File file) {
+        this.context = null;
+        this.file = file;
+    }
+
+    /**
+     * Return the store shared by the whole process. IVs are kept in no-backup files directory,
+     * Keystore Keys are not backed up either so restored IVs would be useless.
+     */
+    @NonNull
+    public static FileIvStore getInstance(@NonNull Context context) {
+        synchronized (INSTANCES) {
+            FileIvStore store = INSTANCES.get(FILE_NAME);
+            if (store == null) {
+                Context applicationContext = context.getApplicationContext();
+                store = new FileIvStore(applicationContext != null ? applicationContext : context);
+                INSTANCES.put(FILE_NAME, store);
+            }
+            return store;
+        }
+    }
+
+    /**
+     * Return the store shared by the whole process for given log.
+     */
+    @NonNull
+    static FileIvStore getInstance(@NonNull File file) {
+        synchronized (INSTANCES) {
+            FileIvStore store = INSTANCES.get(file.getAbsolutePath());
+            if (store == null) {
+                store = new FileIvStore(file);
+                INSTANCES.put(file.getAbsolutePath(), store);
+            }
+            return store;
+        }
+    }
+
+    @Nullable
+    @Override
+    public synchronized byte[] load(@NonNull String key) {
+        ensureLoaded();
+        byte[] iv = index.get(key);
+        return iv != null ? iv.clone() : null;
+    }
+
+    @Override
+    public synchronized void save(@NonNull String key, @NonNull byte[] iv) {
+        byte[] keyBytes = keyBytes(key);
+        if (iv.length > MAX_LENGTH) {
+            throw new IllegalArgumentException("IV is too long.");
+        }
+
+        ensureLoaded();
+        byte[] previous = index.put(key, iv.clone());
+        if (previous != null) {
+            liveBytes -= recordSize(keyBytes, previous);
+        }
+        liveBytes += recordSize(keyBytes, iv);
+        append(record(TYPE_SAVE, keyBytes, iv));
+    }
+
+    @Override
+    public synchronized void remove(@NonNull String key) {
+        ensureLoaded();
+        byte[] previous = index.remove(key);
+        if (previous == null) {
+            return;
+        }
+
+        byte[] keyBytes = keyBytes(key);
+        liveBytes -= recordSize(keyBytes, previous);
+        append(record(TYPE_REMOVE, keyBytes, EMPTY));
+    }
+
+    private void append(@NonNull byte[] record) {
+        if (!rewriteNeeded) {
+            try {
+                FileOutputStream output = output();
+                output.write(record);
+                fileBytes += record.length;
+                unsyncedRecords++;
+                if (unsyncedRecords >= SYNC_BATCH_RECORDS || System.nanoTime() - lastSyncNanos >= SYNC_INTERVAL_NANOS) {
+                    sync(output);
+                } else {
+                    scheduleSync();
+                }
+            } catch (IOException e) {
+                /* Record may be half written, index is still valid so rewrite the file from it. */
+                closeOutput();
+                rewriteNeeded = true;
+            }
+        }
+
+        if (rewriteNeeded || (fileBytes >= COMPACTION_MIN_BYTES && fileBytes > 2 * liveBytes)) {
+            compact();
+        }
+    }
+
+    private void sync(@NonNull FileOutputStream output) throws IOException {
+        output.getFD().sync();
+        unsyncedRecords = 0;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * Sync records of the current burst once the interval passes, even if nothing else is saved.
+     */
+    private void scheduleSync() {
+        if (syncScheduled) {
+            return;
+        }
+
+        syncScheduled = true;
+        syncExecutor().schedule(new Runnable() {
+            @Override
+            public void run() {
+                syncPending();
+            }
+        }, SYNC_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized void syncPending() {
+        syncScheduled = false;
+        FileOutputStream output = this.output;
+        if (unsyncedRecords == 0 || output == null) {
+            return;
+        }
+
+        try {
+            sync(output);
+        } catch (IOException e) {
+            closeOutput();
+            rewriteNeeded = true;
+        }
+    }
+
+    /**
+     * Write live records into temporary file and atomically rename it over the log.
+     */
+    private void compact() {
+        closeOutput();
+        File file = file();
+        File tmp = new File(file.getPath() + ".tmp");
+        ByteArrayOutputStream content = new ByteArrayOutputStream((int) Math.max(liveBytes, HEADER_SIZE));
+        content.write(header(), 0, HEADER_SIZE);
+        for (Map.Entry<String, byte[]> entry : index.entrySet()) {
+            byte[] record = record(TYPE_SAVE, keyBytes(entry.getKey()), entry.getValue());
+            content.write(record, 0, record.length);
+        }
+
+        FileOutputStream tmpOutput = null;
+        try {
+            tmpOutput = new FileOutputStream(tmp);
+            content.writeTo(tmpOutput);
+            tmpOutput.getFD().sync();
+            tmpOutput.close();
+            tmpOutput = null;
+            if (!tmp.renameTo(file)) {
+                throw new IOException("Failed to replace IV log.");
+            }
+            fileBytes = content.size();
+            liveBytes = content.size();
+            unsyncedRecords = 0;
+            lastSyncNanos = System.nanoTime();
+            rewriteNeeded = false;
+        } catch (IOException e) {
+            /* Index stays valid in memory, next write tries again. */
+            rewriteNeeded = true;
+            tmp.delete();
+        } finally {
+            closeQuietly(tmpOutput);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        loaded = true;
+        lastSyncNanos = System.nanoTime() - SYNC_INTERVAL_NANOS;
+        File file = file();
+        if (!file.exists()) {
+            importLegacy();
+            return;
+        }
+
+        try {
+            byte[] data = readFully(file);
+            fileBytes = parse(data);
+            rewriteNeeded = fileBytes < HEADER_SIZE || fileBytes < data.length;
+        } catch (IOException e) {
+            index.clear();
+            rewriteNeeded = true;
+        }
+        liveBytes = HEADER_SIZE;
+        for (Map.Entry<String, byte[]> entry : index.entrySet()) {
+            liveBytes += recordSize(keyBytes(entry.getKey()), entry.getValue());
+        }
+    }
+
+    /**
+     * Apply all valid records to the index.
+     *
+     * @return length of the valid part of the log, 0 if header is invalid.
+     */
+    private int parse(@NonNull byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            return 0;
+        }
+
+        CRC32 crc = new CRC32();
+        int validLength = HEADER_SIZE;
+        while (buffer.remaining() >= 5) {
+            int start = buffer.position();
+            byte type = buffer.get();
+            int keyLength = buffer.getShort() & MAX_LENGTH;
+            if (buffer.remaining() < keyLength + 2) {
+                break;
+            }
+            int keyOffset = buffer.position();
+            buffer.position(keyOffset + keyLength);
+            int ivLength = buffer.getShort() & MAX_LENGTH;
+            if (buffer.remaining() < ivLength + 4) {
+                break;
+            }
+            int ivOffset = buffer.position();
+            buffer.position(ivOffset + ivLength);
+            crc.reset();
+            crc.update(data, start, buffer.position() - start);
+            if (buffer.getInt() != (int) crc.getValue()) {
+                break;
+            }
+
+            String key = new String(data, keyOffset, keyLength, StandardCharsets.UTF_8);
+            if (type == TYPE_SAVE) {
+                index.put(key, Arrays.copyOfRange(data, ivOffset, ivOffset + ivLength));
+            } else if (type == TYPE_REMOVE) {
+                index.remove(key);
+            } else {
+                break;
+            }
+            validLength = buffer.position();
+        }
+        return validLength;
+    }
+
+    /**
+     * Move IVs saved as Base64 strings in SharedPreferences into the log.
+     * Preferences are cleared only after the log is written.
+     */
+    private void importLegacy() {
+        rewriteNeeded = true;
+        liveBytes = HEADER_SIZE;
+        if (context == null) {
+            return;
+        }
+
+        SharedPreferences legacy = context.getSharedPreferences(LEGACY_SHARED_PREFS, Context.MODE_PRIVATE);
+        for (Map.Entry<String, ?> entry : legacy.getAll().entrySet()) {
+            if (!(entry.getValue() instanceof String)) {
+                continue;
+            }
+            try {
+                byte[] iv = Base64Codec.decode((String) entry.getValue());
+                if (iv.length > 0 && iv.length <= MAX_LENGTH) {
+                    index.put(entry.getKey(), iv);
+                }
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+
+        if (!index.isEmpty()) {
+            compact();
+            if (!rewriteNeeded) {
+                legacy.edit().clear().apply();
+            }
+        }
+    }
+
+    @NonNull
+    private File file() {
+        File file = this.file;
+        if (file == null) {
+            file = new File(context.getNoBackupFilesDir(), FILE_NAME);
+            this.file = file;
+        }
+        return file;
+    }
+
+    @NonNull
+    private FileOutputStream output() throws IOException {
+        if (output == null) {
+            output = new FileOutputStream(file(), true);
+        }
+        return output;
+    }
+
+    private void closeOutput() {
+        closeQuietly(output);
+        output = null;
+    }
+
+    /**
+     * Single daemon thread shared by all stores, it stops when there is nothing to sync.
+     */
+    @NonNull
+    private static synchronized ScheduledExecutorService syncExecutor() {
+        if (syncExecutor == null) {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Goldfinger IV sync");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.setKeepAliveTime(1, TimeUnit.SECONDS);
+            executor.allowCoreThreadTimeOut(true);
+            syncExecutor = executor;
+        }
+        return syncExecutor;
+    }
+
+    @NonNull
+    private static byte[] header() {
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).put(VERSION).array();
+    }
+
+    @NonNull
+    private static byte[] record(byte type, @NonNull byte[] keyBytes, @NonNull byte[] iv) {
+        int size = recordSize(keyBytes, iv);
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+            .put(type)
+            .putShort((short) keyBytes.length)
+            .put(keyBytes)
+            .putShort((short) iv.length)
+            .put(iv);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, size - 4);
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+
+    private static int recordSize(@NonNull byte[] keyBytes, @NonNull byte[] iv) {
+        return 1 + 2 + keyBytes.length + 2 + iv.length + 4;
+    }
+
+    @NonNull
+    private static byte[] keyBytes(@NonNull String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Key is too long.");
+        }
+        return keyBytes;
+    }
+
+    @NonNull
+    private static byte[] readFully(@NonNull File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            byte[] data = new byte[(int) input.length()];
+            input.readFully(data);
+            return data;
+        } finally {
+            input.close();
+        }
+    }
+
+    private static void closeQuietly(@Nullable FileOutputStream stream) {
+        if (stream == null) {
+            return;
+        }
+        try {
+            stream.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package co.infinum.goldfinger.crypto.impl;
+
+import android.os.Build;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyInfo;
+import android.security.keystore.KeyProperties;
+
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.ProviderException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+/**
+ * Internal wrapper around AndroidKeyStore shared by AES factories.
+ * Loads the {@link KeyStore} once and caches resolved Keys by name.
+ * <p>
+ * Provider lookup is done lazily on first use, which is usually on Goldfinger background
+ * thread, so that constructing the factory on the main thread is cheap.
+ */
+@RequiresApi(api = Build.VERSION_CODES.M)
+class KeyStoreManager {
+
+    private static final String KEY_KEYSTORE = "AndroidKeyStore";
+    private volatile KeyGenerator keyGenerator;
+    private volatile KeyStore keyStore;
+    private volatile boolean initialized;
+    /* Resolved Keys are cached because every KeyStore lookup is an IPC call to keystore daemon. */
+    private final Map<String, Key> keyCache = new ConcurrentHashMap<>();
+    private volatile boolean keyStoreLoaded;
+
+    boolean isAvailable() {
+        ensureInitialized();
+        return keyStore != null && keyGenerator != null;
+    }
+
+    /**
+     * Generate new {@link Key} described with given spec, replacing the existing one.
+     *
+     * @return created key, or null if something weird happens.
+     */
+    @Nullable
+    Key createKey(@NonNull String key, @NonNull KeyGenParameterSpec spec) throws Exception {
+        throwIfCanceled();
+        keyGenerator.init(spec);
+        keyGenerator.generateKey();
+        keyCache.remove(key);
+        return loadKey(key);
+    }
+
+    /**
+     * Delete {@link Key} with given name from {@link KeyStore}.
+     */
+    boolean deleteKey(@NonNull String key) {
+        keyCache.remove(key);
+        ensureInitialized();
+        if (keyStore == null) {
+            return false;
+        }
+
+        try {
+            ensureKeyStoreLoaded();
+            keyStore.deleteEntry(key);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Forget cached {@link Key}, next load goes to {@link KeyStore} again.
+     */
+    void invalidate(@NonNull String key) {
+        keyCache.remove(key);
+    }
+
+    /**
+     * Read properties the given AndroidKeyStore {@link Key} is generated with.
+     */
+    @NonNull
+    KeyInfo keyInfo(@NonNull Key secureKey) throws Exception {
+        throwIfCanceled();
+        SecretKeyFactory factory = SecretKeyFactory.getInstance(secureKey.getAlgorithm(), KEY_KEYSTORE);
+        return (KeyInfo) factory.getKeySpec((SecretKey) secureKey, KeyInfo.class);
+    }
+
+    /**
+     * Load {@link Key} from cache or {@link KeyStore} if it is not cached yet.
+     *
+     * @param key name of the {@link Key} to load.
+     */
+    @Nullable
+    Key loadKey(@NonNull String key) throws Exception {
+        Key secureKey = keyCache.get(key);
+        if (secureKey != null) {
+            return secureKey;
+        }
+
+        throwIfCanceled();
+        ensureKeyStoreLoaded();
+        secureKey = keyStore.getKey(key, null);
+        if (secureKey != null) {
+            keyCache.put(key, secureKey);
+        }
+        return secureKey;
+    }
+
+    /**
+     * Look up given {@link Key} name in {@link KeyStore}, bypassing the cache, so that
+     * the call reaches the keystore daemon.
+     *
+     * @throws ProviderException if the keystore is not available or fails.
+     */
+    void probe(@NonNull String key) {
+        ensureInitialized();
+        if (keyStore == null) {
+            throw new ProviderException("AndroidKeyStore is not available");
+        }
+
+        try {
+            ensureKeyStoreLoaded();
+            keyStore.containsAlias(key);
+        } catch (Exception e) {
+            rethrowKeystoreFailure(e);
+            throw new ProviderException(e);
+        }
+    }
+
+    /**
+     * CryptoObjects are created on Goldfinger background thread which is interrupted when
+     * the request is canceled. Factories check it between keystore calls so that canceled
+     * request does not keep the keystore daemon busy.
+     *
+     * @throws InterruptedException if the creation is canceled.
+     */
+    static void throwIfCanceled() throws InterruptedException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException("CryptoObject creation is canceled");
+        }
+    }
+
+    /**
+     * Rethrow failure of the keystore itself so that Goldfinger can tell a broken keystore
+     * apart from Key state errors such as invalidated or locked Key, which end up as null crypter.
+     *
+     * @throws ProviderException if given exception comes from the keystore.
+     */
+    static void rethrowKeystoreFailure(@NonNull Exception e) {
+        if (e instanceof ProviderException) {
+            throw (ProviderException) e;
+        }
+        if (e instanceof KeyStoreException) {
+            throw new ProviderException(e);
+        }
+    }
+
+    /**
+     * Look up keystore providers only once, failed lookup is not repeated.
+     */
+    private void ensureInitialized() {
+        if (initialized) {
+            return;
+        }
+
+        synchronized (this) {
+            if (initialized) {
+                return;
+            }
+
+            try {
+                keyStore = KeyStore.getInstance(KEY_KEYSTORE);
+                keyGenerator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, KEY_KEYSTORE);
+            } catch (Exception ignored) {
+                /* Gracefully handle exception later when create method is invoked. */
+            }
+            initialized = true;
+        }
+    }
+
+    /**
+     * Load {@link KeyStore} only once, loaded instance is reused afterwards.
+     */
+    private void ensureKeyStoreLoaded() throws Exception {
+        if (!keyStoreLoaded) {
+            keyStore.load(null);
+            keyStoreLoaded = true;
+        }
+    }
+}
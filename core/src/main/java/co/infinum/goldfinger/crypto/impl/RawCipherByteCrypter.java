@@ -0,0 +1,56 @@
+package co.infinum.goldfinger.crypto.impl;
+
+import java.nio.ByteBuffer;
+
+import javax.crypto.Cipher;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import co.infinum.goldfinger.crypto.CipherByteCrypter;
+
+/**
+ * Implementation uses unlocked cipher to encrypt or decrypt binary data as is,
+ * without any encoding. Used by default if other ByteCrypter implementation is not used.
+ *
+ * @see CipherByteCrypter
+ */
+public class RawCipherByteCrypter implements CipherByteCrypter {
+
+    @Nullable
+    @Override
+    public byte[] decrypt(@NonNull Cipher cipher, @NonNull byte[] value) {
+        try {
+            return cipher.doFinal(value);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int decrypt(@NonNull Cipher cipher, @NonNull ByteBuffer input, @NonNull ByteBuffer output) {
+        try {
+            return cipher.doFinal(input, output);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    @Nullable
+    @Override
+    public byte[] encrypt(@NonNull Cipher cipher, @NonNull byte[] value) {
+        try {
+            return cipher.doFinal(value);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int encrypt(@NonNull Cipher cipher, @NonNull ByteBuffer input, @NonNull ByteBuffer output) {
+        try {
+            return cipher.doFinal(input, output);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import android.os.Build;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
+import co.infinum.goldfinger.crypto.IvStore;
 
 /**
  * Unlocked Cipher factory which can be reused in the app if needed
@@ -21,6 +22,10 @@ public class UnlockedAesCipherFactory extends AesCipherFactory {
         super(context);
     }
 
+    public UnlockedAesCipherFactory(@NonNull IvStore ivStore) {
+        super(ivStore, 0, null);
+    }
+
     @Override
     protected boolean isUserAuthRequired() {
         return false;
@@ -0,0 +1,383 @@
+package co.infinum.goldfinger;
+
+import android.os.Handler;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.security.ProviderException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.biometric.BiometricPrompt;
+import co.infinum.goldfinger.crypto.CipherFactory;
+import co.infinum.goldfinger.crypto.DeferredIvCipherFactory;
+import co.infinum.goldfinger.crypto.KeystoreProbe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class AsyncCryptoObjectFactoryTest {
+
+    private static final String KEY = "key";
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final BlockingCipherFactory cipherFactory = new BlockingCipherFactory();
+    private final AsyncCryptoObjectFactory factory =
+        new AsyncCryptoObjectFactory(new CryptoObjectFactory(cipherFactory, null, null), executor);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void cancel_runningCreationInterrupted() throws InterruptedException {
+        RecordingCallback callback = new RecordingCallback();
+        factory.createCryptoObject(Mode.ENCRYPTION, KEY, null, callback);
+        assertTrue(cipherFactory.started.await(5, TimeUnit.SECONDS));
+
+        callback.cancel();
+        assertTrue(cipherFactory.interrupted.await(5, TimeUnit.SECONDS));
+        assertFalse(callback.delivered.await(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void cancel_queuedCreationNeverStarted() throws InterruptedException {
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+        factory.createCryptoObject(Mode.ENCRYPTION, KEY, null, first);
+        factory.createCryptoObject(Mode.ENCRYPTION, KEY, null, second);
+        assertTrue(cipherFactory.started.await(5, TimeUnit.SECONDS));
+
+        second.cancel();
+        first.cancel();
+        assertTrue(cipherFactory.interrupted.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1, cipherFactory.creations.get());
+    }
+
+    @Test
+    public void prepare_sameParams_notQueuedAgain() throws InterruptedException {
+        factory.prepareCryptoObject(Mode.ENCRYPTION, KEY, null);
+        factory.prepareCryptoObject(Mode.ENCRYPTION, KEY, null);
+        assertTrue(cipherFactory.started.await(5, TimeUnit.SECONDS));
+
+        RecordingCallback callback = new RecordingCallback();
+        factory.createCryptoObject(Mode.ENCRYPTION, KEY, null, callback);
+        cipherFactory.release.countDown();
+        assertTrue(callback.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(1, cipherFactory.creations.get());
+    }
+
+    @Test
+    public void cancel_preparedTarget_preparationInterrupted() throws InterruptedException {
+        factory.prepareCryptoObject(Mode.ENCRYPTION, KEY, null);
+        assertTrue(cipherFactory.started.await(5, TimeUnit.SECONDS));
+
+        RecordingCallback callback = new RecordingCallback();
+        factory.createCryptoObject(Mode.ENCRYPTION, KEY, null, callback);
+        callback.cancel();
+        assertTrue(cipherFactory.interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void prepare_unused_ivNotSaved() throws InterruptedException {
+        DeferredIvFactory cipherFactory = new DeferredIvFactory();
+        AsyncCryptoObjectFactory factory =
+            new AsyncCryptoObjectFactory(new CryptoObjectFactory(cipherFactory, null, null), executor);
+        factory.prepareCryptoObject(Mode.ENCRYPTION, KEY, null);
+        Thread.sleep(100);
+
+        RecordingCallback callback = new RecordingCallback();
+        factory.createCryptoObject(Mode.DECRYPTION, KEY, "value", callback);
+        assertTrue(callback.delivered.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1, cipherFactory.unsavedCreations.get());
+        assertEquals(0, cipherFactory.savedIvs.get());
+    }
+
+    @Test
+    public void prepare_used_ivSavedOnce() throws InterruptedException {
+        DeferredIvFactory cipherFactory = new DeferredIvFactory();
+        AsyncCryptoObjectFactory factory =
+            new AsyncCryptoObjectFactory(new CryptoObjectFactory(cipherFactory, null, null), executor);
+        factory.prepareCryptoObject(Mode.ENCRYPTION, KEY, null);
+
+        RecordingCallback callback = new RecordingCallback();
+        factory.createCryptoObject(Mode.ENCRYPTION, KEY, null, callback);
+        assertTrue(callback.delivered.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1, cipherFactory.unsavedCreations.get());
+        assertEquals(1, cipherFactory.savedIvs.get());
+    }
+
+    @Test
+    public void timeout_runningCreationInterruptedAndReported() throws InterruptedException {
+        RecordingCallback callback = new RecordingCallback();
+        factory.createCryptoObject(Mode.ENCRYPTION, KEY, null, callback);
+        assertTrue(cipherFactory.started.await(5, TimeUnit.SECONDS));
+
+        callback.timeout(1500);
+        assertTrue(cipherFactory.interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(1500, callback.elapsedMillis);
+        assertFalse(callback.delivered.await(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void timeout_afterDelivery_ignored() throws InterruptedException {
+        RecordingCallback callback = new RecordingCallback();
+        factory.createCryptoObject(Mode.ENCRYPTION, KEY, null, callback);
+        cipherFactory.release.countDown();
+        assertTrue(callback.delivered.await(5, TimeUnit.SECONDS));
+
+        callback.timeout(1500);
+        assertEquals(-1, callback.elapsedMillis);
+    }
+
+    @Test
+    public void deliver_deadlineRemoved() {
+        Handler handler = mock(Handler.class);
+        Runnable deadline = mock(Runnable.class);
+        RecordingCallback callback = new RecordingCallback();
+        callback.attachDeadline(handler, deadline);
+
+        callback.deliver(null);
+        verify(handler).removeCallbacks(deadline);
+    }
+
+    @Test
+    public void create_circuitOpen_failsWithoutKeystore() throws InterruptedException {
+        KeystoreCircuitBreaker breaker = new KeystoreCircuitBreaker(1, 30_000);
+        breaker.onFailure(KEY);
+        AsyncCryptoObjectFactory factory =
+            new AsyncCryptoObjectFactory(new CryptoObjectFactory(cipherFactory, null, null), breaker, executor, 0, null, new StatsRecorder());
+
+        RecordingCallback callback = new RecordingCallback();
+        factory.createCryptoObject(Mode.ENCRYPTION, KEY, null, callback);
+        assertTrue(callback.delivered.await(0, TimeUnit.MILLISECONDS));
+        assertEquals(0, cipherFactory.creations.get());
+    }
+
+    @Test
+    public void create_nullCryptoObject_notCountedAsFailure() throws InterruptedException {
+        KeystoreCircuitBreaker breaker = new KeystoreCircuitBreaker(1, 30_000);
+        AsyncCryptoObjectFactory factory =
+            new AsyncCryptoObjectFactory(new CryptoObjectFactory(new FailingCipherFactory(false), null, null), breaker, executor, 0, null, new StatsRecorder());
+
+        RecordingCallback callback = new RecordingCallback();
+        factory.createCryptoObject(Mode.DECRYPTION, KEY, null, callback);
+        assertTrue(callback.delivered.await(5, TimeUnit.SECONDS));
+        assertTrue(breaker.allow(KEY));
+    }
+
+    @Test
+    public void create_keystoreThrows_countedAsFailure() throws InterruptedException {
+        KeystoreCircuitBreaker breaker = new KeystoreCircuitBreaker(1, 30_000);
+        AsyncCryptoObjectFactory factory =
+            new AsyncCryptoObjectFactory(new CryptoObjectFactory(new FailingCipherFactory(true), null, null), breaker, executor, 0, null, new StatsRecorder());
+
+        RecordingCallback callback = new RecordingCallback();
+        factory.createCryptoObject(Mode.DECRYPTION, KEY, null, callback);
+        assertTrue(callback.delivered.await(5, TimeUnit.SECONDS));
+        assertFalse(breaker.allow(KEY));
+    }
+
+    @Test
+    public void probe_factoryReturnsNullWithoutKeystore_circuitStaysOpen() {
+        KeystoreCircuitBreaker breaker = new KeystoreCircuitBreaker(1, 30_000);
+        AsyncCryptoObjectFactory factory =
+            new AsyncCryptoObjectFactory(new CryptoObjectFactory(new FailingCipherFactory(false), null, null), breaker, executor, 0, null, new StatsRecorder());
+        breaker.onFailure(KEY);
+
+        factory.probe(KEY);
+        assertFalse(breaker.allow(KEY));
+    }
+
+    @Test
+    public void probe_keystoreResponds_circuitClosed() {
+        KeystoreCircuitBreaker breaker = new KeystoreCircuitBreaker(1, 30_000);
+        ProbedCipherFactory cipherFactory = new ProbedCipherFactory(false);
+        AsyncCryptoObjectFactory factory =
+            new AsyncCryptoObjectFactory(new CryptoObjectFactory(cipherFactory, null, null), breaker, executor, 0, null, new StatsRecorder());
+        breaker.onFailure(KEY);
+
+        factory.probe(KEY);
+        assertEquals(1, cipherFactory.probes.get());
+        assertTrue(breaker.allow(KEY));
+    }
+
+    @Test
+    public void probe_keystoreFails_circuitStaysOpen() {
+        KeystoreCircuitBreaker breaker = new KeystoreCircuitBreaker(1, 30_000);
+        ProbedCipherFactory cipherFactory = new ProbedCipherFactory(true);
+        AsyncCryptoObjectFactory factory =
+            new AsyncCryptoObjectFactory(new CryptoObjectFactory(cipherFactory, null, null), breaker, executor, 0, null, new StatsRecorder());
+        breaker.onFailure(KEY);
+
+        factory.probe(KEY);
+        assertEquals(1, cipherFactory.probes.get());
+        assertFalse(breaker.allow(KEY));
+    }
+
+    /**
+     * Creates no crypter, only answers probes like responsive or broken keystore.
+     */
+    private static class ProbedCipherFactory implements CipherFactory, KeystoreProbe {
+
+        final AtomicInteger probes = new AtomicInteger();
+        private final boolean keystoreBroken;
+
+        ProbedCipherFactory(boolean keystoreBroken) {
+            this.keystoreBroken = keystoreBroken;
+        }
+
+        @Nullable
+        @Override
+        public Cipher createEncryptionCrypter(String key) {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Cipher createDecryptionCrypter(String key) {
+            return null;
+        }
+
+        @Override
+        public void probeKeystore(@NonNull String key) {
+            probes.incrementAndGet();
+            if (keystoreBroken) {
+                throw new ProviderException("Keystore operation failed");
+            }
+        }
+    }
+
+    /**
+     * Fails like broken keystore if it throws, otherwise like Key without stored IV.
+     */
+    private static class FailingCipherFactory implements CipherFactory {
+
+        private final boolean keystoreBroken;
+
+        FailingCipherFactory(boolean keystoreBroken) {
+            this.keystoreBroken = keystoreBroken;
+        }
+
+        @Nullable
+        @Override
+        public Cipher createEncryptionCrypter(String key) {
+            return createDecryptionCrypter(key);
+        }
+
+        @Nullable
+        @Override
+        public Cipher createDecryptionCrypter(String key) {
+            if (keystoreBroken) {
+                throw new ProviderException("Keystore operation failed");
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Blocks like busy keystore daemon until released or interrupted.
+     */
+    private static class BlockingCipherFactory implements CipherFactory {
+
+        final AtomicInteger creations = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Nullable
+        @Override
+        public Cipher createEncryptionCrypter(String key) {
+            creations.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Cipher createDecryptionCrypter(String key) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates plain JCE Ciphers and counts when their IV would be saved.
+     */
+    private static class DeferredIvFactory implements DeferredIvCipherFactory {
+
+        final AtomicInteger unsavedCreations = new AtomicInteger();
+        final AtomicInteger savedIvs = new AtomicInteger();
+
+        @Nullable
+        @Override
+        public Cipher createEncryptionCrypter(String key) {
+            Cipher cipher = createUnsavedEncryptionCrypter(key);
+            unsavedCreations.decrementAndGet();
+            savedIvs.incrementAndGet();
+            return cipher;
+        }
+
+        @Nullable
+        @Override
+        public Cipher createDecryptionCrypter(String key) {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Cipher createUnsavedEncryptionCrypter(@NonNull String key) {
+            unsavedCreations.incrementAndGet();
+            try {
+                KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+                keyGenerator.init(128);
+                Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+                cipher.init(Cipher.ENCRYPT_MODE, keyGenerator.generateKey());
+                return cipher;
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void saveIv(@NonNull String key, @NonNull Cipher cipher) {
+            savedIvs.incrementAndGet();
+        }
+    }
+
+    private static class RecordingCallback extends AsyncCryptoObjectFactory.Callback {
+
+        final CountDownLatch delivered = new CountDownLatch(1);
+        volatile long elapsedMillis = -1;
+
+        @Override
+        void onCryptoObjectCreated(@Nullable BiometricPrompt.CryptoObject cryptoObject) {
+            delivered.countDown();
+        }
+
+        @Override
+        void onCryptoObjectTimeout(long elapsedMillis) {
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+}
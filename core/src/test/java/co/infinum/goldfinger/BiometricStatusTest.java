@@ -0,0 +1,45 @@
+package co.infinum.goldfinger;
+
+import org.junit.Test;
+
+import androidx.biometric.BiometricManager;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BiometricStatusTest {
+
+    private static final int AUTHENTICATORS = BiometricManager.Authenticators.BIOMETRIC_STRONG;
+
+    @Test
+    public void success() {
+        BiometricStatus status = new BiometricStatus(AUTHENTICATORS, BiometricManager.BIOMETRIC_SUCCESS);
+        assertTrue(status.canAuthenticate());
+        assertTrue(status.hasHardware());
+        assertTrue(status.hasEnrolled());
+    }
+
+    @Test
+    public void noneEnrolled() {
+        BiometricStatus status = new BiometricStatus(AUTHENTICATORS, BiometricManager.BIOMETRIC_ERROR_NONE_ENROLLED);
+        assertFalse(status.canAuthenticate());
+        assertTrue(status.hasHardware());
+        assertFalse(status.hasEnrolled());
+    }
+
+    @Test
+    public void noHardware() {
+        BiometricStatus status = new BiometricStatus(AUTHENTICATORS, BiometricManager.BIOMETRIC_ERROR_NO_HARDWARE);
+        assertFalse(status.canAuthenticate());
+        assertFalse(status.hasHardware());
+        assertTrue(status.hasEnrolled());
+    }
+
+    @Test
+    public void unknown() {
+        BiometricStatus status = new BiometricStatus(AUTHENTICATORS, BiometricManager.BIOMETRIC_STATUS_UNKNOWN);
+        assertFalse(status.canAuthenticate());
+        assertFalse(status.hasHardware());
+        assertFalse(status.hasEnrolled());
+    }
+}
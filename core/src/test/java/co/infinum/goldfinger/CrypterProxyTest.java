@@ -0,0 +1,62 @@
+package co.infinum.goldfinger;
+
+import org.junit.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+
+import androidx.biometric.BiometricPrompt;
+import co.infinum.goldfinger.crypto.impl.RawCipherByteCrypter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class CrypterProxyTest {
+
+    @Test
+    public void encrypt_listenerSet_cipherTimed() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        CrypterProxy proxy = new CrypterProxy(null, null, null, new RawCipherByteCrypter(), listener, new StatsRecorder());
+
+        assertNotNull(proxy.encrypt(new BiometricPrompt.CryptoObject(cipher()), new byte[] {1, 2, 3}));
+        assertEquals(1, listener.events);
+        assertTrue(listener.success);
+        assertTrue(listener.endNanos >= listener.startNanos);
+    }
+
+    @Test
+    public void encrypt_missingCrypter_failureReported() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        CrypterProxy proxy = new CrypterProxy(null, null, null, null, listener, new StatsRecorder());
+
+        proxy.encrypt(new BiometricPrompt.CryptoObject(cipher()), new byte[] {1, 2, 3});
+        assertEquals(1, listener.events);
+        assertFalse(listener.success);
+    }
+
+    private static Cipher cipher() throws Exception {
+        KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(128);
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, keyGenerator.generateKey());
+        return cipher;
+    }
+
+    private static class RecordingListener extends GoldfingerEventListener {
+
+        int events = 0;
+        long startNanos;
+        long endNanos;
+        boolean success;
+
+        @Override
+        public void onCipherFinished(long startNanos, long endNanos, boolean success) {
+            this.events++;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.success = success;
+        }
+    }
+}
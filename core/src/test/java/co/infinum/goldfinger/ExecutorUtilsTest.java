@@ -0,0 +1,142 @@
+package co.infinum.goldfinger;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutorUtilsTest {
+
+    private static final int TASK_COUNT = 100;
+
+    @Test
+    public void sharedExecutor_sameInstance() {
+        assertSame(ExecutorUtils.sharedExecutor(), ExecutorUtils.sharedExecutor());
+    }
+
+    @Test
+    public void promptExecutor_separateFromShared() {
+        assertSame(ExecutorUtils.promptExecutor(), ExecutorUtils.promptExecutor());
+        assertNotSame(ExecutorUtils.sharedExecutor(), ExecutorUtils.promptExecutor());
+    }
+
+    @Test
+    public void serial_runsInSubmissionOrder() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Executor serial = ExecutorUtils.serial(pool);
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch latch = new CountDownLatch(TASK_COUNT);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            final int index = i;
+            serial.execute(new Runnable() {
+                @Override
+                public void run() {
+                    order.add(index);
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < TASK_COUNT; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void serial_runsOneAtATime() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Executor serial = ExecutorUtils.serial(pool);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(TASK_COUNT);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            serial.execute(new Runnable() {
+                @Override
+                public void run() {
+                    int current = running.incrementAndGet();
+                    maxRunning.set(Math.max(maxRunning.get(), current));
+                    running.decrementAndGet();
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+        pool.shutdown();
+    }
+
+    @Test
+    public void serial_rejected_laterTasksStillRun() {
+        final AtomicInteger rejections = new AtomicInteger(1);
+        Executor serial = ExecutorUtils.serial(new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                if (rejections.getAndDecrement() > 0) {
+                    throw new RejectedExecutionException();
+                }
+                runnable.run();
+            }
+        });
+        final AtomicInteger firstRuns = new AtomicInteger();
+        final AtomicInteger secondRuns = new AtomicInteger();
+
+        boolean rejected = false;
+        try {
+            serial.execute(new Runnable() {
+                @Override
+                public void run() {
+                    firstRuns.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected = true;
+        }
+        serial.execute(new Runnable() {
+            @Override
+            public void run() {
+                secondRuns.incrementAndGet();
+            }
+        });
+
+        assertTrue(rejected);
+        assertEquals(0, firstRuns.get());
+        assertEquals(1, secondRuns.get());
+    }
+
+    @Test
+    public void serial_shutDownExecutor_rejectionReported() {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        pool.shutdown();
+        Executor serial = ExecutorUtils.serial(pool);
+
+        for (int i = 0; i < 2; i++) {
+            boolean rejected = false;
+            try {
+                serial.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejected = true;
+            }
+            assertTrue(rejected);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package co.infinum.goldfinger;
+
+import android.content.Context;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GoldfingerImplTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    @Mock
+    Context context;
+
+    @Test
+    public void deliverResult_authenticationStart_countedOnce() {
+        StatsRecorder stats = new StatsRecorder();
+        GoldfingerImpl goldfinger = new GoldfingerImpl(
+            context,
+            new AsyncCryptoObjectFactory(new CryptoObjectFactory(null, null, null), DIRECT),
+            new CrypterProxy(null, null, null, null),
+            null,
+            DIRECT,
+            DIRECT,
+            null,
+            stats
+        );
+        RecordingCallback callback = new RecordingCallback();
+        OperationState operation = new OperationState(Goldfinger.State.PROMPTING);
+
+        goldfinger.deliverResult(
+            goldfinger.completingCallback(operation, callback),
+            new Goldfinger.Result(Goldfinger.Type.INFO, Goldfinger.Reason.AUTHENTICATION_START)
+        );
+        assertEquals(1, callback.results.size());
+        assertEquals(1, stats.snapshot().count(Goldfinger.Reason.AUTHENTICATION_START));
+    }
+
+    private static class RecordingCallback implements Goldfinger.Callback {
+
+        final List<Goldfinger.Result> results = new ArrayList<>();
+
+        @Override
+        public void onError(@NonNull Exception e) {
+        }
+
+        @Override
+        public void onResult(@NonNull Goldfinger.Result result) {
+            results.add(result);
+        }
+    }
+}
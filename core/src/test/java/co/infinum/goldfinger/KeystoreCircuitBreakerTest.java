@@ -0,0 +1,79 @@
+package co.infinum.goldfinger;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KeystoreCircuitBreakerTest {
+
+    private static final String KEY = "key";
+
+    @Test
+    public void allow_belowThreshold() {
+        KeystoreCircuitBreaker breaker = new KeystoreCircuitBreaker(3, 30_000);
+        breaker.onFailure(KEY);
+        breaker.onFailure(KEY);
+        assertTrue(breaker.allow(KEY));
+    }
+
+    @Test
+    public void allow_thresholdReached_open() {
+        KeystoreCircuitBreaker breaker = new KeystoreCircuitBreaker(3, 30_000);
+        breaker.onFailure(KEY);
+        breaker.onFailure(KEY);
+        breaker.onFailure(KEY);
+        assertFalse(breaker.allow(KEY));
+    }
+
+    @Test
+    public void allow_otherKey_notAffected() {
+        KeystoreCircuitBreaker breaker = new KeystoreCircuitBreaker(1, 30_000);
+        breaker.onFailure(KEY);
+        assertTrue(breaker.allow("other"));
+    }
+
+    @Test
+    public void onSuccess_resetsFailures() {
+        KeystoreCircuitBreaker breaker = new KeystoreCircuitBreaker(2, 30_000);
+        breaker.onFailure(KEY);
+        breaker.onSuccess(KEY);
+        breaker.onFailure(KEY);
+        assertTrue(breaker.allow(KEY));
+    }
+
+    @Test
+    public void allow_coolDownPassed_probeAllowed() {
+        KeystoreCircuitBreaker breaker = new KeystoreCircuitBreaker(1, 0);
+        breaker.onFailure(KEY);
+        assertTrue(breaker.allow(KEY));
+
+        breaker.onSuccess(KEY);
+        assertTrue(breaker.allow(KEY));
+    }
+
+    @Test
+    public void onFailure_thresholdReached_probeScheduled() {
+        KeystoreCircuitBreaker breaker = new KeystoreCircuitBreaker(2, 30_000);
+        final List<String> probed = new ArrayList<>();
+        breaker.setProber(new KeystoreCircuitBreaker.Prober() {
+            @Override
+            public void scheduleProbe(@NonNull String key, long delayMillis) {
+                probed.add(key);
+                assertEquals(30_000, delayMillis);
+            }
+        });
+
+        breaker.onFailure(KEY);
+        assertTrue(probed.isEmpty());
+        breaker.onFailure(KEY);
+        assertEquals(Collections.singletonList(KEY), probed);
+    }
+}
@@ -0,0 +1,62 @@
+package co.infinum.goldfinger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LogUtilsTest {
+
+    @After
+    public void tearDown() {
+        LogUtils.setLogger(null);
+    }
+
+    @Test
+    public void log_argumentsPassedUnformatted() {
+        RecordingLogger logger = new RecordingLogger();
+        LogUtils.setLogger(logger);
+
+        LogUtils.log(GoldfingerLogger.Event.CRYPTO_OBJECT_TIMEOUT, 1500L);
+        assertEquals(GoldfingerLogger.Event.CRYPTO_OBJECT_TIMEOUT, logger.event);
+        assertEquals(1500L, logger.arg1);
+        assertNull(logger.arg2);
+    }
+
+    @Test
+    public void format_argumentsApplied() {
+        assertEquals(
+            "Starting authentication [keyName=key; value=value]",
+            GoldfingerLogger.Event.AUTHENTICATION_STARTING_WITH_CRYPTO_OBJECT.format("key", "value")
+        );
+        assertEquals("Creating CryptoObject", GoldfingerLogger.Event.CRYPTO_OBJECT_CREATING.format(null, null));
+    }
+
+    @Test
+    public void log_noLogger_ignored() {
+        RecordingLogger logger = new RecordingLogger();
+        LogUtils.setLogger(logger);
+        LogUtils.setLogger(null);
+
+        LogUtils.log(GoldfingerLogger.Event.CRYPTO_OBJECT_CREATING);
+        assertNull(logger.event);
+    }
+
+    private static class RecordingLogger implements GoldfingerLogger {
+
+        Event event;
+        Object arg1;
+        Object arg2;
+
+        @Override
+        public void log(@NonNull Event event, @Nullable Object arg1, @Nullable Object arg2) {
+            this.event = event;
+            this.arg1 = arg1;
+            this.arg2 = arg2;
+        }
+    }
+}
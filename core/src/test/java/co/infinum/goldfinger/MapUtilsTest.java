@@ -0,0 +1,43 @@
+package co.infinum.goldfinger;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MapUtilsTest {
+
+    @Test
+    public void pack_unpack_restoresValues() {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("token", "abc:def");
+        values.put("pin", "1234");
+        values.put("empty", "");
+        values.put("12:", "3:4");
+        assertEquals(values, MapUtils.unpack(MapUtils.pack(values)));
+    }
+
+    @Test
+    public void unpack_empty() {
+        assertTrue(MapUtils.unpack("").isEmpty());
+    }
+
+    @Test
+    public void unpack_invalid_missingValue() {
+        assertNull(MapUtils.unpack("3:key"));
+    }
+
+    @Test
+    public void unpack_invalid_length() {
+        assertNull(MapUtils.unpack("10:key5:value"));
+    }
+
+    @Test
+    public void unpack_invalid_notPacked() {
+        assertNull(MapUtils.unpack("plain value"));
+    }
+}
@@ -0,0 +1,109 @@
+package co.infinum.goldfinger;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.biometric.BiometricPrompt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OperationStateTest {
+
+    private static final int THREAD_COUNT = 8;
+
+    @Test
+    public void transition_expectedState_moved() {
+        OperationState operation = new OperationState(Goldfinger.State.PREPARING);
+        assertTrue(operation.transition(Goldfinger.State.PREPARING, Goldfinger.State.PROMPTING));
+        assertEquals(Goldfinger.State.PROMPTING, operation.state());
+    }
+
+    @Test
+    public void transition_unexpectedState_ignored() {
+        OperationState operation = new OperationState(Goldfinger.State.PREPARING);
+        assertFalse(operation.transition(Goldfinger.State.PROMPTING, Goldfinger.State.CIPHERING));
+        assertEquals(Goldfinger.State.PREPARING, operation.state());
+    }
+
+    @Test
+    public void transition_afterFinish_ignored() {
+        OperationState operation = new OperationState(Goldfinger.State.PREPARING);
+        operation.finish();
+        assertFalse(operation.transition(Goldfinger.State.PREPARING, Goldfinger.State.PROMPTING));
+        assertTrue(operation.isDone());
+    }
+
+    @Test
+    public void finish_onlyOnce() {
+        OperationState operation = new OperationState(Goldfinger.State.PROMPTING);
+        assertTrue(operation.finish());
+        assertFalse(operation.finish());
+    }
+
+    @Test
+    public void preempt_prompting_finished() {
+        OperationState operation = new OperationState(Goldfinger.State.PROMPTING);
+        assertTrue(operation.preempt());
+        assertTrue(operation.isDone());
+    }
+
+    @Test
+    public void preempt_ciphering_ignored() {
+        OperationState operation = new OperationState(Goldfinger.State.CIPHERING);
+        assertFalse(operation.preempt());
+        assertEquals(Goldfinger.State.CIPHERING, operation.state());
+    }
+
+    @Test
+    public void cancel_cryptoObjectCallbackCanceled() {
+        OperationState operation = new OperationState(Goldfinger.State.PREPARING);
+        AsyncCryptoObjectFactory.Callback callback = new AsyncCryptoObjectFactory.Callback() {
+            @Override
+            void onCryptoObjectCreated(BiometricPrompt.CryptoObject cryptoObject) {
+            }
+        };
+        operation.setCryptoObjectCallback(callback);
+        operation.cancel();
+        assertTrue(operation.isDone());
+        assertTrue(callback.isDone());
+    }
+
+    @Test
+    public void finish_concurrent_singleWinner() throws InterruptedException {
+        for (int round = 0; round < 100; round++) {
+            final OperationState operation = new OperationState(Goldfinger.State.PROMPTING);
+            final CountDownLatch start = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(THREAD_COUNT);
+            final AtomicInteger winners = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(THREAD_COUNT);
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                pool.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                            if (operation.finish()) {
+                                winners.incrementAndGet();
+                            }
+                        } catch (InterruptedException ignored) {
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                });
+            }
+
+            start.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(1, winners.get());
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package co.infinum.goldfinger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.fragment.app.FragmentActivity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RequestSchedulerTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    @Mock
+    FragmentActivity activity;
+
+    private final RequestScheduler scheduler = new RequestScheduler(DIRECT, DIRECT);
+
+    @Test
+    public void submit_idle_startedImmediately() {
+        RecordingTask task = new RecordingTask();
+        scheduler.submit(params(Goldfinger.Priority.NORMAL), Mode.ENCRYPTION, new RecordingCallback(), task);
+        assertEquals(1, task.starts);
+        assertEquals(Goldfinger.State.PREPARING, scheduler.state());
+    }
+
+    @Test
+    public void submit_active_queuedUntilFinished() {
+        RecordingTask first = new RecordingTask();
+        RecordingTask second = new RecordingTask();
+        scheduler.submit(params(Goldfinger.Priority.NORMAL), Mode.ENCRYPTION, new RecordingCallback(), first);
+        Goldfinger.Operation queued = scheduler.submit(params(Goldfinger.Priority.NORMAL), Mode.DECRYPTION, new RecordingCallback(), second);
+        assertEquals(0, second.starts);
+        assertEquals(Goldfinger.State.QUEUED, queued.state());
+
+        first.operation.finish();
+        assertEquals(1, second.starts);
+        assertEquals(Goldfinger.State.PREPARING, queued.state());
+    }
+
+    @Test
+    public void submit_lowerPriority_notPreempting() {
+        RecordingTask first = new RecordingTask();
+        RecordingTask second = new RecordingTask();
+        scheduler.submit(params(Goldfinger.Priority.HIGH), Mode.ENCRYPTION, new RecordingCallback(), first);
+        scheduler.submit(params(Goldfinger.Priority.LOW), Mode.ENCRYPTION, new RecordingCallback(), second);
+        assertFalse(first.operation.isDone());
+        assertEquals(0, second.starts);
+    }
+
+    @Test
+    public void submit_higherPriority_preemptsActive() {
+        RecordingTask first = new RecordingTask();
+        RecordingTask second = new RecordingTask();
+        RecordingCallback firstCallback = new RecordingCallback();
+        scheduler.submit(params(Goldfinger.Priority.NORMAL), Mode.ENCRYPTION, firstCallback, first);
+        scheduler.submit(params(Goldfinger.Priority.HIGH), Mode.DECRYPTION, new RecordingCallback(), second);
+
+        assertTrue(first.operation.isDone());
+        assertEquals(Goldfinger.Reason.PREEMPTED, firstCallback.results.get(0).reason());
+        assertEquals(1, second.starts);
+    }
+
+    @Test
+    public void submit_higherPriorityDuringCiphering_startedNextWithoutPreempting() {
+        RecordingTask first = new RecordingTask();
+        RecordingTask normal = new RecordingTask();
+        RecordingTask high = new RecordingTask();
+        RecordingCallback firstCallback = new RecordingCallback();
+        scheduler.submit(params(Goldfinger.Priority.NORMAL), Mode.ENCRYPTION, firstCallback, first);
+        assertTrue(first.operation.transition(Goldfinger.State.PREPARING, Goldfinger.State.CIPHERING));
+        scheduler.submit(params(Goldfinger.Priority.NORMAL), Mode.ENCRYPTION, new RecordingCallback(), normal);
+        scheduler.submit(params(Goldfinger.Priority.HIGH), Mode.DECRYPTION, new RecordingCallback(), high);
+
+        assertEquals(Goldfinger.State.CIPHERING, first.operation.state());
+        assertTrue(firstCallback.results.isEmpty());
+        assertEquals(0, high.starts);
+
+        first.operation.finish();
+        assertEquals(1, high.starts);
+        assertEquals(0, normal.starts);
+    }
+
+    @Test
+    public void submit_queuedInPriorityOrder() {
+        RecordingTask active = new RecordingTask();
+        RecordingTask low = new RecordingTask();
+        RecordingTask high = new RecordingTask();
+        scheduler.submit(params(Goldfinger.Priority.HIGH), Mode.ENCRYPTION, new RecordingCallback(), active);
+        scheduler.submit(params(Goldfinger.Priority.LOW), Mode.ENCRYPTION, new RecordingCallback(), low);
+        scheduler.submit(params(Goldfinger.Priority.HIGH), Mode.ENCRYPTION, new RecordingCallback(), high);
+
+        active.operation.finish();
+        assertEquals(0, low.starts);
+        assertEquals(1, high.starts);
+    }
+
+    @Test
+    public void cancel_queued_neverStarted() {
+        RecordingTask first = new RecordingTask();
+        RecordingTask second = new RecordingTask();
+        scheduler.submit(params(Goldfinger.Priority.NORMAL), Mode.ENCRYPTION, new RecordingCallback(), first);
+        Goldfinger.Operation queued = scheduler.submit(params(Goldfinger.Priority.NORMAL), Mode.ENCRYPTION, new RecordingCallback(), second);
+        queued.cancel();
+
+        first.operation.finish();
+        assertEquals(0, second.starts);
+        assertEquals(Goldfinger.State.IDLE, scheduler.state());
+    }
+
+    @Test
+    public void authenticate_identical_coalesced() {
+        Goldfinger.PromptParams params = params(Goldfinger.Priority.NORMAL);
+        RecordingTask first = new RecordingTask();
+        RecordingTask second = new RecordingTask();
+        RecordingCallback firstCallback = new RecordingCallback();
+        RecordingCallback secondCallback = new RecordingCallback();
+        scheduler.submit(params, Mode.AUTHENTICATION, firstCallback, first);
+        scheduler.submit(params, Mode.AUTHENTICATION, secondCallback, second);
+        assertEquals(1, first.starts);
+        assertEquals(0, second.starts);
+
+        first.operation.finish();
+        first.callback.onResult(new Goldfinger.Result(Goldfinger.Type.SUCCESS, Goldfinger.Reason.AUTHENTICATION_SUCCESS));
+        assertEquals(1, firstCallback.results.size());
+        assertEquals(1, secondCallback.results.size());
+    }
+
+    @Test
+    public void authenticate_coalescedWaiterCanceled_sharedOperationActive() {
+        Goldfinger.PromptParams params = params(Goldfinger.Priority.NORMAL);
+        RecordingTask task = new RecordingTask();
+        RecordingCallback firstCallback = new RecordingCallback();
+        RecordingCallback secondCallback = new RecordingCallback();
+        Goldfinger.Operation firstHandle = scheduler.submit(params, Mode.AUTHENTICATION, firstCallback, task);
+        Goldfinger.Operation secondHandle = scheduler.submit(params, Mode.AUTHENTICATION, secondCallback, new RecordingTask());
+
+        firstHandle.cancel();
+        assertTrue(firstHandle.isDone());
+        assertFalse(secondHandle.isDone());
+        assertFalse(task.operation.isDone());
+
+        secondHandle.cancel();
+        assertTrue(task.operation.isDone());
+    }
+
+    @Test
+    public void authenticate_afterFinish_notCoalesced() {
+        Goldfinger.PromptParams params = params(Goldfinger.Priority.NORMAL);
+        RecordingTask first = new RecordingTask();
+        RecordingTask second = new RecordingTask();
+        scheduler.submit(params, Mode.AUTHENTICATION, new RecordingCallback(), first);
+        first.operation.finish();
+        scheduler.submit(params, Mode.AUTHENTICATION, new RecordingCallback(), second);
+        assertEquals(1, second.starts);
+    }
+
+    @Test
+    public void cancelAll_activeAndQueuedCanceled() {
+        RecordingTask first = new RecordingTask();
+        RecordingTask second = new RecordingTask();
+        scheduler.submit(params(Goldfinger.Priority.NORMAL), Mode.ENCRYPTION, new RecordingCallback(), first);
+        scheduler.submit(params(Goldfinger.Priority.NORMAL), Mode.ENCRYPTION, new RecordingCallback(), second);
+        scheduler.cancelAll();
+
+        assertTrue(first.operation.isDone());
+        assertNull(second.operation);
+        assertEquals(Goldfinger.State.IDLE, scheduler.state());
+    }
+
+    private Goldfinger.PromptParams params(Goldfinger.Priority priority) {
+        return new Goldfinger.PromptParams.Builder(activity)
+            .title("Title")
+            .negativeButtonText("Cancel")
+            .priority(priority)
+            .build();
+    }
+
+    private static class RecordingTask implements RequestScheduler.Task {
+
+        OperationState operation;
+        Goldfinger.Callback callback;
+        int starts = 0;
+
+        @Override
+        public void start(@NonNull OperationState operation, @NonNull Goldfinger.Callback callback) {
+            this.operation = operation;
+            this.callback = callback;
+            starts++;
+        }
+    }
+
+    private static class RecordingCallback implements Goldfinger.Callback {
+
+        final List<Goldfinger.Result> results = new ArrayList<>();
+
+        @Override
+        public void onError(@NonNull Exception e) {
+        }
+
+        @Override
+        public void onResult(@NonNull Goldfinger.Result result) {
+            results.add(result);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package co.infinum.goldfinger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class StatsRecorderTest {
+
+    private static final long MS = 1_000_000;
+
+    private final StatsRecorder recorder = new StatsRecorder();
+
+    @Test
+    public void bucketIndex_powersOfTwo() {
+        assertEquals(0, LatencyHistogram.bucketIndex(0));
+        assertEquals(0, LatencyHistogram.bucketIndex(1));
+        assertEquals(1, LatencyHistogram.bucketIndex(2));
+        assertEquals(2, LatencyHistogram.bucketIndex(3));
+        assertEquals(2, LatencyHistogram.bucketIndex(4));
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void snapshot_resultsCounted() {
+        recorder.recordResult(new Goldfinger.Result(Goldfinger.Type.INFO, Goldfinger.Reason.AUTHENTICATION_START));
+        recorder.recordResult(new Goldfinger.Result(Goldfinger.Type.SUCCESS, Goldfinger.Reason.AUTHENTICATION_SUCCESS));
+        recorder.recordResult(new Goldfinger.Result(Goldfinger.Type.ERROR, Goldfinger.Reason.PREEMPTED));
+
+        GoldfingerStats stats = recorder.snapshot();
+        assertEquals(1, stats.count(Goldfinger.Reason.PREEMPTED));
+        assertEquals(1, stats.count(Goldfinger.Type.SUCCESS));
+        assertEquals(0, stats.count(Goldfinger.Reason.TIMEOUT));
+    }
+
+    @Test
+    public void snapshot_percentiles() {
+        for (int i = 0; i < 90; i++) {
+            recorder.recordCipher(3 * MS);
+        }
+        for (int i = 0; i < 10; i++) {
+            recorder.recordCipher(1000 * MS);
+        }
+
+        GoldfingerStats.Latency cipher = recorder.snapshot().cipher();
+        assertEquals(100, cipher.count());
+        assertEquals(4_096, cipher.percentileMicros(50));
+        assertEquals(5, cipher.p50Millis());
+        assertEquals(5, cipher.p90Millis());
+        assertEquals(1_049, cipher.p99Millis());
+    }
+
+    @Test
+    public void snapshot_fractionalMillis_roundedUp() {
+        recorder.recordCipher(2_900_000);
+        recorder.recordCipher(2_048_001);
+
+        GoldfingerStats.Latency cipher = recorder.snapshot().cipher();
+        assertEquals(4_096, cipher.percentileMicros(50));
+        assertEquals(4_096, cipher.percentileMicros(100));
+        assertEquals(5, cipher.p50Millis());
+    }
+
+    @Test
+    public void snapshot_subMillisecond_distinguished() {
+        for (int i = 0; i < 90; i++) {
+            recorder.recordCipher(150_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            recorder.recordCipher(600_000);
+        }
+
+        GoldfingerStats.Latency cipher = recorder.snapshot().cipher();
+        assertEquals(256, cipher.percentileMicros(50));
+        assertEquals(1_024, cipher.percentileMicros(99));
+        assertEquals(2, cipher.p99Millis());
+    }
+
+    @Test
+    public void snapshot_aboveLargestBucket_unbounded() {
+        recorder.recordTimeInDialog(10 * 60_000 * MS);
+
+        GoldfingerStats.Latency timeInDialog = recorder.snapshot().timeInDialog();
+        assertEquals(Long.MAX_VALUE, timeInDialog.p50Millis());
+        assertEquals(Long.MAX_VALUE, timeInDialog.percentileMicros(50));
+    }
+
+    @Test
+    public void snapshot_notChangedByLaterRecords() {
+        GoldfingerStats stats = recorder.snapshot();
+        recorder.recordCryptoObjectCreation(10 * MS);
+        assertEquals(0, stats.cryptoObjectCreation().count());
+        assertEquals(0, stats.cryptoObjectCreation().p99Millis());
+    }
+}
@@ -5,6 +5,11 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import androidx.biometric.BiometricManager;
 import androidx.fragment.app.FragmentActivity;
 
@@ -24,21 +29,20 @@ public class ValidateUtilsTest {
     @Mock
     FragmentActivity activity;
 
-    @Test
+    @Test(expected = RuntimeException.class)
     public void auth_invalid_emptyTitle() {
-        Goldfinger.PromptParams params = new Goldfinger.PromptParams.Builder(activity)
+        new Goldfinger.PromptParams.Builder(activity)
             .description(DESCRIPTION)
             .negativeButtonText(NEGATIVE_BUTTON_TEXT)
             .subtitle(SUBTITLE)
             .allowedAuthenticators(BiometricManager.Authenticators.BIOMETRIC_WEAK)
             .confirmationRequired(true)
             .build();
-        assertEquals(1, ValidateUtils.validatePromptParams(Mode.AUTHENTICATION, params).size());
     }
 
-    @Test
+    @Test(expected = RuntimeException.class)
     public void auth_invalid_negativeButtonSet() {
-        Goldfinger.PromptParams params = new Goldfinger.PromptParams.Builder(activity)
+        new Goldfinger.PromptParams.Builder(activity)
             .description(DESCRIPTION)
             .title(TITLE)
             .negativeButtonText(NEGATIVE_BUTTON_TEXT)
@@ -46,27 +50,33 @@ public class ValidateUtilsTest {
             .allowedAuthenticators(BiometricManager.Authenticators.BIOMETRIC_WEAK | BiometricManager.Authenticators.DEVICE_CREDENTIAL)
             .confirmationRequired(true)
             .build();
-        assertEquals(1, ValidateUtils.validatePromptParams(Mode.AUTHENTICATION, params).size());
     }
 
-    @Test
+    @Test(expected = RuntimeException.class)
     public void auth_invalid_negativeButtonRequired() {
-        Goldfinger.PromptParams params = new Goldfinger.PromptParams.Builder(activity)
+        new Goldfinger.PromptParams.Builder(activity)
             .description(DESCRIPTION)
             .title(TITLE)
             .subtitle(SUBTITLE)
             .allowedAuthenticators(BiometricManager.Authenticators.BIOMETRIC_WEAK)
             .confirmationRequired(true)
             .build();
-        assertEquals(1, ValidateUtils.validatePromptParams(Mode.AUTHENTICATION, params).size());
     }
 
-    @Test
+    @Test(expected = RuntimeException.class)
     public void auth_invalid_negativeTextRequired() {
+        new Goldfinger.PromptParams.Builder(activity)
+            .title(TITLE)
+            .build();
+    }
+
+    @Test
+    public void auth_valid_paramsBuilt() {
         Goldfinger.PromptParams params = new Goldfinger.PromptParams.Builder(activity)
             .title(TITLE)
+            .negativeButtonText(NEGATIVE_BUTTON_TEXT)
             .build();
-        assertEquals(1, ValidateUtils.validatePromptParams(Mode.AUTHENTICATION, params).size());
+        assertTrue(ValidateUtils.validatePromptParams(params).isEmpty());
     }
 
     @Test
@@ -146,4 +156,67 @@ public class ValidateUtilsTest {
     public void encrypt_valid() {
         assertTrue(ValidateUtils.validateCipherParams(Mode.ENCRYPTION, KEY, VALUE).isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void bytes_invalid_emptyValue() {
+        assertEquals(1, ValidateUtils.validateByteParams(KEY, ByteValue.of(new byte[0])).size());
+    }
+
+    @Test
+    public void bytes_invalid_readOnlyOutput() {
+        ByteValue value = ByteValue.of(ByteBuffer.wrap(new byte[]{1}), ByteBuffer.allocate(16).asReadOnlyBuffer());
+        assertEquals(1, ValidateUtils.validateByteParams(KEY, value).size());
+    }
+
+    @Test
+    public void bytes_valid() {
+        assertTrue(ValidateUtils.validateByteParams(KEY, ByteValue.of(new byte[]{1})).isEmpty());
+    }
+
+    @Test
+    public void stream_invalid_emptyKey() {
+        assertEquals(1, ValidateUtils.validateStreamParams("").size());
+    }
+
+    @Test
+    public void stream_valid() {
+        assertTrue(ValidateUtils.validateStreamParams(KEY).isEmpty());
+    }
+
+    @Test
+    public void encryptValues_invalid_empty() {
+        assertEquals(1, ValidateUtils.validateValues(Collections.<String, String>emptyMap()).size());
+    }
+
+    @Test
+    public void encryptValues_invalid_nullValue() {
+        Map<String, String> values = new HashMap<>();
+        values.put(KEY, null);
+        assertEquals(1, ValidateUtils.validateValues(values).size());
+    }
+
+    @Test
+    public void encryptValues_valid() {
+        assertTrue(ValidateUtils.validateValues(Collections.singletonMap(KEY, VALUE)).isEmpty());
+    }
+
+    @Test
+    public void session_invalid_weakBiometrics() {
+        Goldfinger.PromptParams params = new Goldfinger.PromptParams.Builder(activity)
+            .title(TITLE)
+            .negativeButtonText(NEGATIVE_BUTTON_TEXT)
+            .allowedAuthenticators(BiometricManager.Authenticators.BIOMETRIC_WEAK)
+            .build();
+        assertEquals(1, ValidateUtils.validateSessionParams(params).size());
+    }
+
+    @Test
+    public void session_valid() {
+        Goldfinger.PromptParams params = new Goldfinger.PromptParams.Builder(activity)
+            .title(TITLE)
+            .negativeButtonText(NEGATIVE_BUTTON_TEXT)
+            .allowedAuthenticators(BiometricManager.Authenticators.BIOMETRIC_STRONG)
+            .build();
+        assertTrue(ValidateUtils.validateSessionParams(params).isEmpty());
+    }
+}
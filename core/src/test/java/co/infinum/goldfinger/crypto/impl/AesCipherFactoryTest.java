@@ -0,0 +1,26 @@
+package co.infinum.goldfinger.crypto.impl;
+
+import android.content.Context;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AesCipherFactoryTest {
+
+    @Mock private Context context;
+
+    @Test
+    public void constructor_ivStoreNotOpened() {
+        new AesCipherFactory(context);
+        verify(context, never()).getSharedPreferences(anyString(), anyInt());
+        verify(context, never()).getNoBackupFilesDir();
+    }
+}
@@ -0,0 +1,54 @@
+package co.infinum.goldfinger.crypto.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AesGcmFormatTest {
+
+    private static final byte[] IV = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+    private static final byte[] CIPHERTEXT = {42, 43, 44};
+
+    @Test
+    public void wrap_containsHeaderAndIv() {
+        byte[] encoded = AesGcmFormat.wrap(IV, CIPHERTEXT);
+        assertEquals(AesGcmFormat.VERSION, encoded[0]);
+        assertEquals(IV.length, encoded[1]);
+        assertEquals(2 + IV.length + CIPHERTEXT.length, encoded.length);
+    }
+
+    @Test
+    public void iv_restored() {
+        assertArrayEquals(IV, AesGcmFormat.iv(AesGcmFormat.wrap(IV, CIPHERTEXT)));
+    }
+
+    @Test
+    public void payloadOffset_pointsToCiphertext() {
+        byte[] encoded = AesGcmFormat.wrap(IV, CIPHERTEXT);
+        assertEquals(2 + IV.length, AesGcmFormat.payloadOffset(encoded));
+    }
+
+    @Test
+    public void iv_invalid_unknownVersion() {
+        byte[] encoded = AesGcmFormat.wrap(IV, CIPHERTEXT);
+        encoded[0] = 2;
+        assertNull(AesGcmFormat.iv(encoded));
+    }
+
+    @Test
+    public void iv_invalid_truncated() {
+        assertNull(AesGcmFormat.iv(new byte[]{AesGcmFormat.VERSION, 12, 1, 2}));
+    }
+
+    @Test
+    public void iv_invalid_empty() {
+        assertNull(AesGcmFormat.iv(new byte[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrap_invalid_emptyIv() {
+        AesGcmFormat.wrap(new byte[0], CIPHERTEXT);
+    }
+}
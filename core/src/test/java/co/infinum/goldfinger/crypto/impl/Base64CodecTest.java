@@ -0,0 +1,104 @@
+package co.infinum.goldfinger.crypto.impl;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class Base64CodecTest {
+
+    @Test
+    public void encode_rfcVectors() {
+        assertEquals("", encode(""));
+        assertEquals("Zg==", encode("f"));
+        assertEquals("Zm8=", encode("fo"));
+        assertEquals("Zm9v", encode("foo"));
+        assertEquals("Zm9vYg==", encode("foob"));
+        assertEquals("Zm9vYmE=", encode("fooba"));
+        assertEquals("Zm9vYmFy", encode("foobar"));
+    }
+
+    @Test
+    public void decode_rfcVectors() {
+        assertEquals("", decode(""));
+        assertEquals("f", decode("Zg=="));
+        assertEquals("fo", decode("Zm8="));
+        assertEquals("foo", decode("Zm9v"));
+        assertEquals("foobar", decode("Zm9vYmFy"));
+    }
+
+    @Test
+    public void roundTrip_allLengths() {
+        Random random = new Random(42);
+        for (int length = 0; length < 100; length++) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            String encoded = Base64Codec.encode(bytes);
+            assertEquals(Base64Codec.encodedLength(length), encoded.length());
+            assertArrayEquals(bytes, Base64Codec.decode(encoded));
+        }
+    }
+
+    @Test
+    public void decode_ignoresLineBreaks() {
+        assertEquals("foobar", decode("Zm9v\nYmFy\n"));
+        assertEquals("foob", decode("Zm9v\r\nYg==\n"));
+    }
+
+    @Test
+    public void decode_withoutPadding() {
+        assertEquals("f", decode("Zg"));
+        assertEquals("fo", decode("Zm8"));
+    }
+
+    @Test
+    public void encode_intoBuffer() {
+        char[] buffer = new char[10];
+        int written = Base64Codec.encode(bytes("xfoox"), 1, 3, buffer, 2);
+        assertEquals(4, written);
+        assertEquals("Zm9v", new String(buffer, 2, written));
+    }
+
+    @Test
+    public void decode_intoBuffer() {
+        byte[] buffer = new byte[10];
+        int written = Base64Codec.decode("Zm9vYg==", buffer, 1);
+        assertEquals(4, written);
+        assertEquals("foob", new String(buffer, 1, written, StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_invalid_character() {
+        Base64Codec.decode("Zm9v*mFy");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_invalid_dataAfterPadding() {
+        Base64Codec.decode("Zg==Zm9v");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_invalid_length() {
+        Base64Codec.decode("Zm9vY");
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void encode_invalid_bufferTooSmall() {
+        Base64Codec.encode(bytes("foo"), 0, 3, new char[3], 0);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String decode(String value) {
+        return new String(Base64Codec.decode(value), StandardCharsets.UTF_8);
+    }
+
+    private static String encode(String value) {
+        return Base64Codec.encode(bytes(value));
+    }
+}
@@ -0,0 +1,126 @@
+package co.infinum.goldfinger.crypto.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.spec.IvParameterSpec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FileIvStoreTest {
+
+    private static final String KEY = "key";
+    private static final String OTHER_KEY = "other";
+    private static final byte[] IV = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16};
+    private static final byte[] OTHER_IV = {16, 15, 14, 13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1};
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("goldfinger_iv", ".log");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void load_missing() {
+        assertNull(new FileIvStore(file).load(KEY));
+    }
+
+    @Test
+    public void save_restoredAfterReopen() {
+        FileIvStore store = new FileIvStore(file);
+        store.save(KEY, OTHER_IV);
+        store.save(KEY, IV);
+        store.save(OTHER_KEY, OTHER_IV);
+
+        FileIvStore reopened = new FileIvStore(file);
+        assertArrayEquals(IV, reopened.load(KEY));
+        assertArrayEquals(OTHER_IV, reopened.load(OTHER_KEY));
+    }
+
+    @Test
+    public void remove_restoredAfterReopen() {
+        FileIvStore store = new FileIvStore(file);
+        store.save(KEY, IV);
+        store.remove(KEY);
+
+        assertNull(store.load(KEY));
+        assertNull(new FileIvStore(file).load(KEY));
+    }
+
+    @Test
+    public void tornRecord_dropped() throws IOException {
+        FileIvStore store = new FileIvStore(file);
+        store.save(KEY, IV);
+        store.save(OTHER_KEY, OTHER_IV);
+        truncate(file.length() - 3);
+
+        FileIvStore reopened = new FileIvStore(file);
+        assertArrayEquals(IV, reopened.load(KEY));
+        assertNull(reopened.load(OTHER_KEY));
+
+        reopened.save(OTHER_KEY, IV);
+        assertArrayEquals(IV, new FileIvStore(file).load(OTHER_KEY));
+    }
+
+    @Test
+    public void repeatedSaves_compacted() {
+        FileIvStore store = new FileIvStore(file);
+        for (int i = 0; i < 1000; i++) {
+            store.save(KEY, i % 2 == 0 ? OTHER_IV : IV);
+        }
+
+        assertTrue(file.length() < 8192);
+        assertArrayEquals(IV, new FileIvStore(file).load(KEY));
+    }
+
+    @Test
+    public void getInstance_sharedByFactories_compactionKeepsAllRecords() throws Exception {
+        AesCipherFactory first = new AesCipherFactory(FileIvStore.getInstance(file), 0, null);
+        AesCipherFactory second = new AesCipherFactory(FileIvStore.getInstance(file), 0, null);
+        assertSame(FileIvStore.getInstance(file), FileIvStore.getInstance(file));
+
+        first.saveIv(KEY, cipher(IV));
+        for (int i = 0; i < 1000; i++) {
+            second.saveIv(OTHER_KEY, cipher(i % 2 == 0 ? IV : OTHER_IV));
+        }
+        assertTrue(file.length() < 8192);
+
+        FileIvStore reopened = new FileIvStore(file);
+        assertArrayEquals(IV, reopened.load(KEY));
+        assertArrayEquals(OTHER_IV, reopened.load(OTHER_KEY));
+    }
+
+    private void truncate(long length) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(length);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static Cipher cipher(byte[] iv) throws Exception {
+        KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(128);
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, keyGenerator.generateKey(), new IvParameterSpec(iv));
+        return cipher;
+    }
+}
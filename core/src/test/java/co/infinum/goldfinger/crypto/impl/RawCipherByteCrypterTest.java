@@ -0,0 +1,72 @@
+package co.infinum.goldfinger.crypto.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RawCipherByteCrypterTest {
+
+    private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+    private static final byte[] VALUE = "Binary secret".getBytes(StandardCharsets.UTF_8);
+
+    private final RawCipherByteCrypter crypter = new RawCipherByteCrypter();
+    private SecretKeySpec key;
+    private IvParameterSpec iv;
+
+    @Before
+    public void setUp() {
+        key = new SecretKeySpec(new byte[16], "AES");
+        iv = new IvParameterSpec(new byte[16]);
+    }
+
+    @Test
+    public void bytes_roundTrip() throws Exception {
+        byte[] encrypted = crypter.encrypt(cipher(Cipher.ENCRYPT_MODE), VALUE);
+        assertArrayEquals(VALUE, crypter.decrypt(cipher(Cipher.DECRYPT_MODE), encrypted));
+    }
+
+    @Test
+    public void directBuffers_roundTrip() throws Exception {
+        ByteBuffer input = ByteBuffer.allocateDirect(VALUE.length);
+        input.put(VALUE).flip();
+        ByteBuffer encrypted = ByteBuffer.allocateDirect(64);
+        int encryptedLength = crypter.encrypt(cipher(Cipher.ENCRYPT_MODE), input, encrypted);
+        assertEquals(encryptedLength, encrypted.position());
+
+        encrypted.flip();
+        ByteBuffer decrypted = ByteBuffer.allocateDirect(64);
+        int decryptedLength = crypter.decrypt(cipher(Cipher.DECRYPT_MODE), encrypted, decrypted);
+        assertEquals(VALUE.length, decryptedLength);
+
+        byte[] result = new byte[decryptedLength];
+        decrypted.flip();
+        decrypted.get(result);
+        assertArrayEquals(VALUE, result);
+    }
+
+    @Test
+    public void buffer_outputTooSmall() throws Exception {
+        assertEquals(-1, crypter.encrypt(cipher(Cipher.ENCRYPT_MODE), ByteBuffer.wrap(VALUE), ByteBuffer.allocate(1)));
+    }
+
+    @Test
+    public void bytes_invalidCiphertext() throws Exception {
+        assertNull(crypter.decrypt(cipher(Cipher.DECRYPT_MODE), VALUE));
+    }
+
+    private Cipher cipher(int mode) throws Exception {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(mode, key, iv);
+        return cipher;
+    }
+}
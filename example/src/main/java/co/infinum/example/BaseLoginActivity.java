@@ -40,12 +40,15 @@ public abstract class BaseLoginActivity extends AppCompatActivity {
     };
 
     protected Goldfinger.PromptParams buildPromptParams() {
-        return new Goldfinger.PromptParams.Builder(this)
+        Goldfinger.PromptParams.Builder builder = new Goldfinger.PromptParams.Builder(this)
             .title("Login")
             .description("Confirm Biometrics to Login")
-            .negativeButtonText("Cancel")
-            .allowedAuthenticators(SharedPrefs.getAuthenticators())
-            .build();
+            .allowedAuthenticators(SharedPrefs.getAuthenticators());
+        /* Negative button is replaced with device credentials option */
+        if (!SharedPrefs.getDeviceCredentialsAuth()) {
+            builder.negativeButtonText("Cancel");
+        }
+        return builder.build();
     }
 
     protected void handleGoldfingerError() {
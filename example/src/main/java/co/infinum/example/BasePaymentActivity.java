@@ -17,12 +17,15 @@ public abstract class BasePaymentActivity extends AppCompatActivity {
     private TextView userResultView;
 
     protected Goldfinger.PromptParams buildPromptParams() {
-        return new Goldfinger.PromptParams.Builder(this)
+        Goldfinger.PromptParams.Builder builder = new Goldfinger.PromptParams.Builder(this)
             .title("Payment")
             .description("Authenticate Biometrics to proceed with payment")
-            .negativeButtonText("Cancel")
-            .allowedAuthenticators(SharedPrefs.getAuthenticators())
-            .build();
+            .allowedAuthenticators(SharedPrefs.getAuthenticators());
+        /* Negative button is replaced with device credentials option */
+        if (!SharedPrefs.getDeviceCredentialsAuth()) {
+            builder.negativeButtonText("Cancel");
+        }
+        return builder.build();
     }
 
     protected void handleGoldfingerResult(Goldfinger.Result result) {
@@ -25,12 +25,15 @@ public abstract class BaseSettingsActivity extends AppCompatActivity {
     private View logoutButton;
 
     protected Goldfinger.PromptParams buildPromptParams() {
-        return new Goldfinger.PromptParams.Builder(this)
+        Goldfinger.PromptParams.Builder builder = new Goldfinger.PromptParams.Builder(this)
             .title("Settings")
             .description("Confirm Fingerprint to enable Fingerprint Login")
-            .negativeButtonText("Cancel")
-            .allowedAuthenticators(SharedPrefs.getAuthenticators())
-            .build();
+            .allowedAuthenticators(SharedPrefs.getAuthenticators());
+        /* Negative button is replaced with device credentials option */
+        if (!SharedPrefs.getDeviceCredentialsAuth()) {
+            builder.negativeButtonText("Cancel");
+        }
+        return builder.build();
     }
 
     protected void handleGoldfingerError() {
@@ -2,9 +2,18 @@ package co.infinum.goldfinger.rx;
 
 import android.content.Context;
 
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import co.infinum.goldfinger.BiometricStatus;
 import co.infinum.goldfinger.Goldfinger;
+import co.infinum.goldfinger.GoldfingerEventListener;
+import co.infinum.goldfinger.GoldfingerLogger;
+import co.infinum.goldfinger.GoldfingerStats;
+import co.infinum.goldfinger.crypto.CipherByteCrypter;
 import co.infinum.goldfinger.crypto.CipherCrypter;
 import co.infinum.goldfinger.crypto.CipherFactory;
 import co.infinum.goldfinger.crypto.MacCrypter;
@@ -77,6 +86,88 @@ public interface RxGoldfinger {
      */
     Observable<Goldfinger.Result> decrypt(@NonNull Goldfinger.PromptParams params, @NonNull String key, @NonNull String value);
 
+    /**
+     * @see Goldfinger#encrypt(Goldfinger.PromptParams, String, byte[], Goldfinger.Callback)
+     */
+    Observable<Goldfinger.Result> encrypt(@NonNull Goldfinger.PromptParams params, @NonNull String key, @NonNull byte[] value);
+
+    /**
+     * @see Goldfinger#decrypt(Goldfinger.PromptParams, String, byte[], Goldfinger.Callback)
+     */
+    Observable<Goldfinger.Result> decrypt(@NonNull Goldfinger.PromptParams params, @NonNull String key, @NonNull byte[] value);
+
+    /**
+     * @see Goldfinger#encrypt(Goldfinger.PromptParams, String, ByteBuffer, ByteBuffer, Goldfinger.Callback)
+     */
+    Observable<Goldfinger.Result> encrypt(
+        @NonNull Goldfinger.PromptParams params,
+        @NonNull String key,
+        @NonNull ByteBuffer input,
+        @NonNull ByteBuffer output
+    );
+
+    /**
+     * @see Goldfinger#decrypt(Goldfinger.PromptParams, String, ByteBuffer, ByteBuffer, Goldfinger.Callback)
+     */
+    Observable<Goldfinger.Result> decrypt(
+        @NonNull Goldfinger.PromptParams params,
+        @NonNull String key,
+        @NonNull ByteBuffer input,
+        @NonNull ByteBuffer output
+    );
+
+    /**
+     * @see Goldfinger#encryptValues
+     */
+    Observable<Goldfinger.Result> encryptValues(
+        @NonNull Goldfinger.PromptParams params,
+        @NonNull String key,
+        @NonNull Map<String, String> values
+    );
+
+    /**
+     * @see Goldfinger#decryptValues
+     */
+    Observable<Goldfinger.Result> decryptValues(@NonNull Goldfinger.PromptParams params, @NonNull String key, @NonNull String value);
+
+    /**
+     * @see Goldfinger#prepareEncryption
+     */
+    void prepareEncryption(@NonNull String key);
+
+    /**
+     * @see Goldfinger#prepareDecryption
+     */
+    void prepareDecryption(@NonNull String key, @NonNull String value);
+
+    /**
+     * @see Goldfinger#sessionRemainingMillis
+     */
+    long sessionRemainingMillis();
+
+    /**
+     * @see Goldfinger#state
+     */
+    @NonNull
+    Goldfinger.State state();
+
+    /**
+     * @see Goldfinger#stats
+     */
+    @NonNull
+    GoldfingerStats stats();
+
+    /**
+     * @see Goldfinger#endSession
+     */
+    void endSession();
+
+    /**
+     * @see Goldfinger#status
+     */
+    @NonNull
+    BiometricStatus status(int authenticators);
+
     /**
      * @see Goldfinger#cancel
      */
@@ -99,6 +190,18 @@ public interface RxGoldfinger {
             return new RxGoldfingerImpl(goldfingerBuilder.build());
         }
 
+        @NonNull
+        public RxGoldfinger.Builder callbackExecutor(@Nullable Executor callbackExecutor) {
+            goldfingerBuilder.callbackExecutor(callbackExecutor);
+            return this;
+        }
+
+        @NonNull
+        public RxGoldfinger.Builder cipherByteCrypter(@Nullable CipherByteCrypter cipherByteCrypter) {
+            goldfingerBuilder.cipherByteCrypter(cipherByteCrypter);
+            return this;
+        }
+
         @NonNull
         public RxGoldfinger.Builder cipherCrypter(@Nullable CipherCrypter cipherCrypter) {
             goldfingerBuilder.cipherCrypter(cipherCrypter);
@@ -111,12 +214,36 @@ public interface RxGoldfinger {
             return this;
         }
 
+        @NonNull
+        public RxGoldfinger.Builder cryptoObjectTimeout(long millis) {
+            goldfingerBuilder.cryptoObjectTimeout(millis);
+            return this;
+        }
+
+        @NonNull
+        public RxGoldfinger.Builder eventListener(@Nullable GoldfingerEventListener eventListener) {
+            goldfingerBuilder.eventListener(eventListener);
+            return this;
+        }
+
+        @NonNull
+        public RxGoldfinger.Builder executor(@Nullable Executor executor) {
+            goldfingerBuilder.executor(executor);
+            return this;
+        }
+
         @NonNull
         public RxGoldfinger.Builder logEnabled(boolean logEnabled) {
             goldfingerBuilder.logEnabled(logEnabled);
             return this;
         }
 
+        @NonNull
+        public RxGoldfinger.Builder logger(@Nullable GoldfingerLogger logger) {
+            goldfingerBuilder.logger(logger);
+            return this;
+        }
+
         @NonNull
         public RxGoldfinger.Builder macCrypter(@Nullable MacCrypter macCrypter) {
             goldfingerBuilder.macCrypter(macCrypter);
@@ -129,6 +256,12 @@ public interface RxGoldfinger {
             return this;
         }
 
+        @NonNull
+        public RxGoldfinger.Builder sessionDuration(int seconds) {
+            goldfingerBuilder.sessionDuration(seconds);
+            return this;
+        }
+
         @NonNull
         public RxGoldfinger.Builder signatureCrypter(@Nullable SignatureCrypter signatureCrypter) {
             goldfingerBuilder.signatureCrypter(signatureCrypter);
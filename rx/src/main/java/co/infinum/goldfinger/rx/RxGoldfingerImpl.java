@@ -1,16 +1,25 @@
 package co.infinum.goldfinger.rx;
 
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
+import co.infinum.goldfinger.BiometricStatus;
 import co.infinum.goldfinger.Goldfinger;
+import co.infinum.goldfinger.GoldfingerStats;
 import io.reactivex.Observable;
 import io.reactivex.ObservableEmitter;
 import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.functions.Cancellable;
 
 class RxGoldfingerImpl implements RxGoldfinger {
 
     @NonNull private final Goldfinger goldfinger;
-    @Nullable private RxGoldfingerCallback callback;
+    @NonNull private final Set<RxGoldfingerCallback> callbacks =
+        Collections.newSetFromMap(new ConcurrentHashMap<RxGoldfingerCallback, Boolean>());
 
     RxGoldfingerImpl(@NonNull Goldfinger goldfinger) {
         this.goldfinger = goldfinger;
@@ -22,8 +31,8 @@ class RxGoldfingerImpl implements RxGoldfinger {
         return Observable.create(new ObservableOnSubscribe<Goldfinger.Result>() {
             @Override
             public void subscribe(ObservableEmitter<Goldfinger.Result> observableEmitter) {
-                callback = new RxGoldfingerCallback(observableEmitter);
-                goldfinger.authenticate(params, callback);
+                RxGoldfingerCallback callback = new RxGoldfingerCallback(observableEmitter);
+                bind(observableEmitter, callback, goldfinger.authenticate(params, callback));
             }
         });
     }
@@ -40,7 +49,7 @@ class RxGoldfingerImpl implements RxGoldfinger {
 
     @Override
     public void cancel() {
-        if (callback != null) {
+        for (RxGoldfingerCallback callback : callbacks) {
             callback.cancel();
         }
         goldfinger.cancel();
@@ -55,8 +64,8 @@ class RxGoldfingerImpl implements RxGoldfinger {
         return Observable.create(new ObservableOnSubscribe<Goldfinger.Result>() {
             @Override
             public void subscribe(ObservableEmitter<Goldfinger.Result> observableEmitter) {
-                callback = new RxGoldfingerCallback(observableEmitter);
-                goldfinger.decrypt(params, key, value, callback);
+                RxGoldfingerCallback callback = new RxGoldfingerCallback(observableEmitter);
+                bind(observableEmitter, callback, goldfinger.decrypt(params, key, value, callback));
             }
         });
     }
@@ -70,12 +79,109 @@ class RxGoldfingerImpl implements RxGoldfinger {
         return Observable.create(new ObservableOnSubscribe<Goldfinger.Result>() {
             @Override
             public void subscribe(ObservableEmitter<Goldfinger.Result> observableEmitter) {
-                callback = new RxGoldfingerCallback(observableEmitter);
-                goldfinger.encrypt(params, key, value, callback);
+                RxGoldfingerCallback callback = new RxGoldfingerCallback(observableEmitter);
+                bind(observableEmitter, callback, goldfinger.encrypt(params, key, value, callback));
+            }
+        });
+    }
+
+    @Override
+    public Observable<Goldfinger.Result> decrypt(
+        @NonNull final Goldfinger.PromptParams params,
+        @NonNull final String key,
+        @NonNull final byte[] value
+    ) {
+        return Observable.create(new ObservableOnSubscribe<Goldfinger.Result>() {
+            @Override
+            public void subscribe(ObservableEmitter<Goldfinger.Result> observableEmitter) {
+                RxGoldfingerCallback callback = new RxGoldfingerCallback(observableEmitter);
+                bind(observableEmitter, callback, goldfinger.decrypt(params, key, value, callback));
+            }
+        });
+    }
+
+    @Override
+    public Observable<Goldfinger.Result> decrypt(
+        @NonNull final Goldfinger.PromptParams params,
+        @NonNull final String key,
+        @NonNull final ByteBuffer input,
+        @NonNull final ByteBuffer output
+    ) {
+        return Observable.create(new ObservableOnSubscribe<Goldfinger.Result>() {
+            @Override
+            public void subscribe(ObservableEmitter<Goldfinger.Result> observableEmitter) {
+                RxGoldfingerCallback callback = new RxGoldfingerCallback(observableEmitter);
+                bind(observableEmitter, callback, goldfinger.decrypt(params, key, input, output, callback));
+            }
+        });
+    }
+
+    @Override
+    public Observable<Goldfinger.Result> decryptValues(
+        @NonNull final Goldfinger.PromptParams params,
+        @NonNull final String key,
+        @NonNull final String value
+    ) {
+        return Observable.create(new ObservableOnSubscribe<Goldfinger.Result>() {
+            @Override
+            public void subscribe(ObservableEmitter<Goldfinger.Result> observableEmitter) {
+                RxGoldfingerCallback callback = new RxGoldfingerCallback(observableEmitter);
+                bind(observableEmitter, callback, goldfinger.decryptValues(params, key, value, callback));
+            }
+        });
+    }
+
+    @Override
+    public Observable<Goldfinger.Result> encrypt(
+        @NonNull final Goldfinger.PromptParams params,
+        @NonNull final String key,
+        @NonNull final byte[] value
+    ) {
+        return Observable.create(new ObservableOnSubscribe<Goldfinger.Result>() {
+            @Override
+            public void subscribe(ObservableEmitter<Goldfinger.Result> observableEmitter) {
+                RxGoldfingerCallback callback = new RxGoldfingerCallback(observableEmitter);
+                bind(observableEmitter, callback, goldfinger.encrypt(params, key, value, callback));
+            }
+        });
+    }
+
+    @Override
+    public Observable<Goldfinger.Result> encrypt(
+        @NonNull final Goldfinger.PromptParams params,
+        @NonNull final String key,
+        @NonNull final ByteBuffer input,
+        @NonNull final ByteBuffer output
+    ) {
+        return Observable.create(new ObservableOnSubscribe<Goldfinger.Result>() {
+            @Override
+            public void subscribe(ObservableEmitter<Goldfinger.Result> observableEmitter) {
+                RxGoldfingerCallback callback = new RxGoldfingerCallback(observableEmitter);
+                bind(observableEmitter, callback, goldfinger.encrypt(params, key, input, output, callback));
+            }
+        });
+    }
+
+    @Override
+    public Observable<Goldfinger.Result> encryptValues(
+        @NonNull final Goldfinger.PromptParams params,
+        @NonNull final String key,
+        @NonNull final Map<String, String> values
+    ) {
+        return Observable.create(new ObservableOnSubscribe<Goldfinger.Result>() {
+            @Override
+            public void subscribe(ObservableEmitter<Goldfinger.Result> observableEmitter) {
+                RxGoldfingerCallback callback = new RxGoldfingerCallback(observableEmitter);
+                bind(observableEmitter, callback, goldfinger.encryptValues(params, key, values, callback));
             }
         });
     }
 
+    @Override
+    public void endSession() {
+        goldfinger.endSession();
+    }
+
     @Override
     public boolean hasEnrolledFingerprint() {
         return goldfinger.hasEnrolledFingerprint();
@@ -105,4 +211,56 @@ class RxGoldfingerImpl implements RxGoldfinger {
     public boolean hasBiometricHardware(int authenticators) {
         return goldfinger.hasBiometricHardware(authenticators);
     }
+
+    @Override
+    public void prepareDecryption(@NonNull String key, @NonNull String value) {
+        goldfinger.prepareDecryption(key, value);
+    }
+
+    @Override
+    public void prepareEncryption(@NonNull String key) {
+        goldfinger.prepareEncryption(key);
+    }
+
+    @Override
+    public long sessionRemainingMillis() {
+        return goldfinger.sessionRemainingMillis();
+    }
+
+    @NonNull
+    @Override
+    public Goldfinger.State state() {
+        return goldfinger.state();
+    }
+
+    @NonNull
+    @Override
+    public GoldfingerStats stats() {
+        return goldfinger.stats();
+    }
+
+    @NonNull
+    @Override
+    public BiometricStatus status(int authenticators) {
+        return goldfinger.status(authenticators);
+    }
+
+    /**
+     * Every subscription owns its operation. Disposing the subscription cancels only that
+     * operation, so stale subscriptions can not cancel the one that is currently shown.
+     */
+    private void bind(
+        @NonNull ObservableEmitter<Goldfinger.Result> emitter,
+        @NonNull final RxGoldfingerCallback callback,
+        @NonNull final Goldfinger.Operation operation
+    ) {
+        callbacks.add(callback);
+        emitter.setCancellable(new Cancellable() {
+            @Override
+            public void cancel() {
+                callbacks.remove(callback);
+                operation.cancel();
+            }
+        });
+    }
 }
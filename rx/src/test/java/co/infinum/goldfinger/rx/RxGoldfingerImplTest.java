@@ -6,6 +6,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Collections;
+import java.util.Map;
+
+import androidx.biometric.BiometricManager;
 import androidx.fragment.app.FragmentActivity;
 import co.infinum.goldfinger.Goldfinger;
 import io.reactivex.observers.DisposableObserver;
@@ -14,6 +18,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class RxGoldfingerImplTest {
@@ -23,6 +28,7 @@ public class RxGoldfingerImplTest {
 
     @Mock private Goldfinger goldfinger;
     @Mock private FragmentActivity activity;
+    @Mock private Goldfinger.Operation operation;
     private DisposableObserver<Goldfinger.Result> observer = new TestObserver();
     @InjectMocks private RxGoldfingerImpl rxGoldfinger;
 
@@ -40,12 +46,52 @@ public class RxGoldfingerImplTest {
         verify(goldfinger, never()).authenticate(eq(params), any(Goldfinger.Callback.class));
     }
 
+    @Test
+    public void authenticate_disposeCancelsOwnOperation() {
+        Goldfinger.PromptParams params = params();
+        when(goldfinger.authenticate(eq(params), any(Goldfinger.Callback.class))).thenReturn(operation);
+        rxGoldfinger.authenticate(params).subscribe(observer);
+        observer.dispose();
+        verify(operation).cancel();
+        verify(goldfinger, never()).cancel();
+    }
+
     @Test
     public void cancel_delegated() {
         rxGoldfinger.cancel();
         verify(goldfinger).cancel();
     }
 
+    @Test
+    public void status_delegated() {
+        rxGoldfinger.status(BiometricManager.Authenticators.BIOMETRIC_STRONG);
+        verify(goldfinger).status(BiometricManager.Authenticators.BIOMETRIC_STRONG);
+    }
+
+    @Test
+    public void endSession_delegated() {
+        rxGoldfinger.endSession();
+        verify(goldfinger).endSession();
+    }
+
+    @Test
+    public void sessionRemainingMillis_delegated() {
+        rxGoldfinger.sessionRemainingMillis();
+        verify(goldfinger).sessionRemainingMillis();
+    }
+
+    @Test
+    public void state_delegated() {
+        rxGoldfinger.state();
+        verify(goldfinger).state();
+    }
+
+    @Test
+    public void stats_delegated() {
+        rxGoldfinger.stats();
+        verify(goldfinger).stats();
+    }
+
     @Test
     public void decrypt_delegatedOnSubscribe() {
         Goldfinger.PromptParams params = params();
@@ -60,6 +106,21 @@ public class RxGoldfingerImplTest {
         verify(goldfinger, never()).decrypt(eq(params), eq(KEY), eq(VALUE), any(Goldfinger.Callback.class));
     }
 
+    @Test
+    public void decryptBytes_delegatedOnSubscribe() {
+        Goldfinger.PromptParams params = params();
+        byte[] value = VALUE.getBytes();
+        rxGoldfinger.decrypt(params, KEY, value).subscribe(observer);
+        verify(goldfinger).decrypt(eq(params), eq(KEY), eq(value), any(Goldfinger.Callback.class));
+    }
+
+    @Test
+    public void decryptValues_delegatedOnSubscribe() {
+        Goldfinger.PromptParams params = params();
+        rxGoldfinger.decryptValues(params, KEY, VALUE).subscribe(observer);
+        verify(goldfinger).decryptValues(eq(params), eq(KEY), eq(VALUE), any(Goldfinger.Callback.class));
+    }
+
     @Test
     public void encrypt_delegatedOnSubscribe() {
         Goldfinger.PromptParams params = params();
@@ -74,6 +135,34 @@ public class RxGoldfingerImplTest {
         verify(goldfinger, never()).encrypt(eq(params), eq(KEY), eq(VALUE), any(Goldfinger.Callback.class));
     }
 
+    @Test
+    public void encryptBytes_delegatedOnSubscribe() {
+        Goldfinger.PromptParams params = params();
+        byte[] value = VALUE.getBytes();
+        rxGoldfinger.encrypt(params, KEY, value).subscribe(observer);
+        verify(goldfinger).encrypt(eq(params), eq(KEY), eq(value), any(Goldfinger.Callback.class));
+    }
+
+    @Test
+    public void encryptValues_delegatedOnSubscribe() {
+        Goldfinger.PromptParams params = params();
+        Map<String, String> values = Collections.singletonMap(KEY, VALUE);
+        rxGoldfinger.encryptValues(params, KEY, values).subscribe(observer);
+        verify(goldfinger).encryptValues(eq(params), eq(KEY), eq(values), any(Goldfinger.Callback.class));
+    }
+
+    @Test
+    public void prepareDecryption_delegated() {
+        rxGoldfinger.prepareDecryption(KEY, VALUE);
+        verify(goldfinger).prepareDecryption(KEY, VALUE);
+    }
+
+    @Test
+    public void prepareEncryption_delegated() {
+        rxGoldfinger.prepareEncryption(KEY);
+        verify(goldfinger).prepareEncryption(KEY);
+    }
+
     private Goldfinger.PromptParams params() {
         return new Goldfinger.PromptParams.Builder(activity).title("Title").negativeButtonText("Text").build();
     }